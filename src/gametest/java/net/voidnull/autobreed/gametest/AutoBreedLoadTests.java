@@ -0,0 +1,267 @@
+package net.voidnull.autobreed.gametest;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.animal.Cow;
+import net.minecraft.world.entity.decoration.ItemFrame;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.CropBlock;
+import net.minecraft.world.level.block.FarmBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+import net.voidnull.autobreed.AutoBreed;
+import net.voidnull.autobreed.tracking.PerformanceMetrics;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Load tests on large farms, run with the gameTestServer task.
+ * Each scenario builds its farm, lets it settle, then runs for a number of ticks and fails if
+ * the time spent in AutoBreed per tick goes over its budget. Births over the run are logged
+ * alongside, so a change that makes animals cheaper by making them stop eating shows up too.
+ * <p>
+ * Budgets are read from system properties, which the gameTestServer run fills in from
+ * -Pautobreed.loadtest.* project properties:
+ * <ul>
+ *     <li>autobreed.loadtest.ticks: length of each run, default 600</li>
+ *     <li>autobreed.loadtest.&lt;scenario&gt;.maxMsPerTick: AutoBreed time budget in ms per tick</li>
+ *     <li>autobreed.loadtest.&lt;scenario&gt;.minBirths: fewest births the run must produce, default 0</li>
+ * </ul>
+ * Each scenario has its own batch so they never share a tick.
+ */
+@GameTestHolder(AutoBreed.MODID)
+@PrefixGameTestTemplate(false)
+public class AutoBreedLoadTests {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static final String ARENA = AutoBreed.MODID + ":load_test_arena";
+    private static final String PROPERTY_PREFIX = "autobreed.loadtest.";
+    private static final int DEFAULT_TICKS = 600;
+    // Lets chunk scans and the first round of searches finish before measuring
+    private static final int WARMUP_TICKS = 40;
+    // Runs longer than this need a larger timeout
+    private static final int TIMEOUT_TICKS = 20_000;
+
+    // Operations on the server thread that are not nested in another timed operation;
+    // searches run inside the goal timers, rescans of stale async results run after the publish
+    // timer stops, and async scans off the server thread are left out
+    private static final Set<String> ATTRIBUTED_OPERATIONS = Set.of(
+        "goal_target_search", "goal_consume", "entity_index", "tick_end", "journal_apply",
+        "chunk_scan", "chunk_publish", "chunk_unload", "chunk_snapshot_save");
+
+    // Farm bounds inside the arena, leaving a margin for the fence
+    private static final int MIN = 2;
+    private static final int MAX = 101;
+    private static final int FLOOR_SPACING = 6;
+
+    /**
+     * 2,000 cows in one pen fed from a grid of hay bales
+     */
+    @GameTest(template = ARENA, batch = "autobreed_load_hay", timeoutTicks = TIMEOUT_TICKS)
+    public static void cowsAroundHay(GameTestHelper helper) {
+        buildPen(helper, 0);
+        placeHayGrid(helper, 1, 8);
+        spawnCows(helper, 1, 2000);
+        run(helper, "cowsAroundHay", 5.0);
+    }
+
+    /**
+     * 10,000 ripe wheat crops with cows grazing on them
+     */
+    @GameTest(template = ARENA, batch = "autobreed_load_wheat", timeoutTicks = TIMEOUT_TICKS)
+    public static void wheatField(GameTestHelper helper) {
+        BlockState farmland = Blocks.FARMLAND.defaultBlockState().setValue(FarmBlock.MOISTURE, FarmBlock.MAX_MOISTURE);
+        BlockState wheat = ((CropBlock) Blocks.WHEAT).getStateForAge(((CropBlock) Blocks.WHEAT).getMaxAge());
+        fill(helper, 0, farmland);
+        fill(helper, 1, wheat);
+        placeFence(helper, 1);
+        spawnCows(helper, 1, 500);
+        run(helper, "wheatField", 5.0);
+    }
+
+    /**
+     * 5,000 dropped wheat items scattered through a pen of cows
+     */
+    @GameTest(template = ARENA, batch = "autobreed_load_items", timeoutTicks = TIMEOUT_TICKS)
+    public static void itemDropFlood(GameTestHelper helper) {
+        buildPen(helper, 0);
+        spawnCows(helper, 1, 500);
+        int items = 5000;
+        for (int i = 0; i < items; i++) {
+            BlockPos pos = spread(i, items, 1);
+            helper.spawnItem(Items.WHEAT, pos.getX() + 0.5f, pos.getY() + 0.5f, pos.getZ() + 0.5f);
+        }
+        run(helper, "itemDropFlood", 5.0);
+    }
+
+    /**
+     * Rows of stone walls lined with item frames holding wheat
+     */
+    @GameTest(template = ARENA, batch = "autobreed_load_frames", timeoutTicks = TIMEOUT_TICKS)
+    public static void itemFrameFeeders(GameTestHelper helper) {
+        buildPen(helper, 0);
+        for (int z = MIN + 5; z <= MAX - 5; z += 10) {
+            for (int x = MIN + 2; x <= MAX - 2; x += 2) {
+                helper.setBlock(x, 1, z, Blocks.STONE);
+                placeFrame(helper, new BlockPos(x, 1, z - 1), Direction.NORTH);
+                placeFrame(helper, new BlockPos(x, 1, z + 1), Direction.SOUTH);
+            }
+        }
+        spawnCows(helper, 1, 1000);
+        run(helper, "itemFrameFeeders", 3.0);
+    }
+
+    /**
+     * Three pens stacked on top of each other, each with hay and cows, so searches span floors
+     */
+    @GameTest(template = ARENA, batch = "autobreed_load_stacked", timeoutTicks = TIMEOUT_TICKS)
+    public static void stackedPens(GameTestHelper helper) {
+        for (int floor = 0; floor < 3; floor++) {
+            int y = floor * FLOOR_SPACING;
+            buildPen(helper, y);
+            placeHayGrid(helper, y + 1, 10);
+            spawnCows(helper, y + 1, 400);
+        }
+        run(helper, "stackedPens", 5.0);
+    }
+
+    /**
+     * Measures from the end of the warmup to the end of the run, then checks the budgets
+     */
+    private static void run(GameTestHelper helper, String scenario, double defaultMaxMsPerTick) {
+        int ticks = Integer.getInteger(PROPERTY_PREFIX + "ticks", DEFAULT_TICKS);
+        double maxMsPerTick = Double.parseDouble(
+            System.getProperty(PROPERTY_PREFIX + scenario + ".maxMsPerTick", Double.toString(defaultMaxMsPerTick)));
+        int minBirths = Integer.getInteger(PROPERTY_PREFIX + scenario + ".minBirths", 0);
+
+        boolean metricsWereEnabled = PerformanceMetrics.isEnabled();
+        PerformanceMetrics.setEnabled(true);
+        LoadRun loadRun = new LoadRun();
+        // Both are queued up front, as the helper does not expect tasks to be added while they run
+        helper.runAfterDelay(WARMUP_TICKS, () -> loadRun.start(helper));
+        helper.runAfterDelay(WARMUP_TICKS + ticks, () -> {
+            try {
+                loadRun.finish(helper, scenario, ticks, maxMsPerTick, minBirths);
+            } finally {
+                PerformanceMetrics.setEnabled(metricsWereEnabled);
+            }
+        });
+    }
+
+    /**
+     * Totals taken at the start of the measured part of a run
+     */
+    private static final class LoadRun {
+        private long attributedNanos;
+        private int babies;
+        private long startedNanos;
+
+        void start(GameTestHelper helper) {
+            attributedNanos = attributedNanos();
+            babies = countBabies(helper);
+            startedNanos = System.nanoTime();
+        }
+
+        void finish(GameTestHelper helper, String scenario, int ticks, double maxMsPerTick, int minBirths) {
+            double wallMsPerTick = (System.nanoTime() - startedNanos) / 1_000_000.0 / ticks;
+            double msPerTick = (attributedNanos() - attributedNanos) / 1_000_000.0 / ticks;
+            int births = countBabies(helper) - babies;
+            double mspt = helper.getLevel().getServer().getAverageTickTimeNanos() / 1_000_000.0;
+            String result = String.format(Locale.ROOT,
+                "%s: %.3f ms/tick in AutoBreed (budget %.3f), %.2f ms/tick overall, server mspt %.2f, %d births in %d ticks (%.2f per 1000 ticks)",
+                scenario, msPerTick, maxMsPerTick, wallMsPerTick, mspt, births, ticks, births * 1000.0 / ticks);
+            LOGGER.info("Load test {}", result);
+
+            if (msPerTick > maxMsPerTick) {
+                helper.fail("Over time budget: " + result);
+            } else if (births < minBirths) {
+                helper.fail("Fewer than " + minBirths + " births: " + result);
+            } else {
+                helper.succeed();
+            }
+        }
+    }
+
+    private static long attributedNanos() {
+        long total = 0;
+        for (Map.Entry<String, Long> entry : PerformanceMetrics.totalNanos().entrySet()) {
+            if (ATTRIBUTED_OPERATIONS.contains(entry.getKey())) {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    private static int countBabies(GameTestHelper helper) {
+        int babies = 0;
+        for (Cow cow : helper.getEntities(EntityType.COW)) {
+            if (cow.isBaby()) {
+                babies++;
+            }
+        }
+        return babies;
+    }
+
+    private static void buildPen(GameTestHelper helper, int y) {
+        fill(helper, y, Blocks.GRASS_BLOCK.defaultBlockState());
+        placeFence(helper, y + 1);
+    }
+
+    private static void fill(GameTestHelper helper, int y, BlockState state) {
+        for (int x = MIN; x <= MAX; x++) {
+            for (int z = MIN; z <= MAX; z++) {
+                helper.setBlock(x, y, z, state);
+            }
+        }
+    }
+
+    // Two blocks high, as animals step up single blocks
+    private static void placeFence(GameTestHelper helper, int y) {
+        for (int i = MIN - 1; i <= MAX + 1; i++) {
+            for (int dy = 0; dy < 2; dy++) {
+                helper.setBlock(i, y + dy, MIN - 1, Blocks.STONE_BRICKS);
+                helper.setBlock(i, y + dy, MAX + 1, Blocks.STONE_BRICKS);
+                helper.setBlock(MIN - 1, y + dy, i, Blocks.STONE_BRICKS);
+                helper.setBlock(MAX + 1, y + dy, i, Blocks.STONE_BRICKS);
+            }
+        }
+    }
+
+    private static void placeHayGrid(GameTestHelper helper, int y, int spacing) {
+        for (int x = MIN + spacing / 2; x <= MAX; x += spacing) {
+            for (int z = MIN + spacing / 2; z <= MAX; z += spacing) {
+                helper.setBlock(x, y, z, Blocks.HAY_BLOCK);
+            }
+        }
+    }
+
+    private static void placeFrame(GameTestHelper helper, BlockPos relative, Direction facing) {
+        ItemFrame frame = new ItemFrame(helper.getLevel(), helper.absolutePos(relative), facing);
+        frame.setItem(new ItemStack(Items.WHEAT), false);
+        helper.getLevel().addFreshEntity(frame);
+    }
+
+    private static void spawnCows(GameTestHelper helper, int y, int count) {
+        for (int i = 0; i < count; i++) {
+            BlockPos pos = spread(i, count, y);
+            helper.spawn(EntityType.COW, pos.getX() + 0.5f, pos.getY(), pos.getZ() + 0.5f);
+        }
+    }
+
+    // Spreads count positions evenly over the farm, walking it column by column
+    private static BlockPos spread(int i, int count, int y) {
+        int size = MAX - MIN + 1;
+        long cell = (long) i * size * size / count;
+        return new BlockPos(MIN + (int) (cell % size), y, MIN + (int) (cell / size));
+    }
+}
@@ -0,0 +1,146 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic worlds for the tracking benchmarks. Everything is built from a fixed seed, so runs
+ * on different commits measure the same data.
+ */
+final class BenchmarkFixtures {
+    static final long SEED = 0x5EED_AB1EL;
+    // Surface the farms sit on
+    static final int FARM_Y = 64;
+
+    private BenchmarkFixtures() {}
+
+    static LevelIndex newIndex() {
+        return new LevelIndex(Level.OVERWORLD);
+    }
+
+    /**
+     * Underground section: mostly stone and deepslate with scattered ores, gravel and caves
+     */
+    static PalettedContainer<BlockState> stoneSection(Random random) {
+        PalettedContainer<BlockState> section = TestFixtures.emptySection();
+        BlockState[] rare = {
+            Blocks.COAL_ORE.defaultBlockState(), Blocks.IRON_ORE.defaultBlockState(), Blocks.COPPER_ORE.defaultBlockState(),
+            Blocks.GRAVEL.defaultBlockState(), Blocks.ANDESITE.defaultBlockState(), Blocks.DIORITE.defaultBlockState(),
+            Blocks.GRANITE.defaultBlockState(), Blocks.WATER.defaultBlockState()
+        };
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int roll = random.nextInt(100);
+                    BlockState state;
+                    if (roll < 60) {
+                        state = Blocks.STONE.defaultBlockState();
+                    } else if (roll < 85) {
+                        state = Blocks.DEEPSLATE.defaultBlockState();
+                    } else if (roll < 92) {
+                        state = Blocks.CAVE_AIR.defaultBlockState();
+                    } else {
+                        state = rare[random.nextInt(rare.length)];
+                    }
+                    section.getAndSetUnchecked(x, y, z, state);
+                }
+            }
+        }
+        return section;
+    }
+
+    /**
+     * Surface section of a wheat farm: dirt below, a farmland layer with a water source in the
+     * middle of every 9x9 plot, wheat of random ages on a {@code density} share of the plots'
+     * cells, and air above
+     */
+    static PalettedContainer<BlockState> farmSection(Random random, double density) {
+        PalettedContainer<BlockState> section = TestFixtures.emptySection();
+        int farmland = FARM_Y & 15;
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                for (int y = 0; y < farmland; y++) {
+                    section.getAndSetUnchecked(x, y, z, Blocks.DIRT.defaultBlockState());
+                }
+                if (x % 9 == 4 && z % 9 == 4) {
+                    section.getAndSetUnchecked(x, farmland, z, Blocks.WATER.defaultBlockState());
+                    continue;
+                }
+                section.getAndSetUnchecked(x, farmland, z, Blocks.FARMLAND.defaultBlockState());
+                if (random.nextDouble() < density) {
+                    section.getAndSetUnchecked(x, farmland + 1, z, randomWheat(random));
+                }
+            }
+        }
+        return section;
+    }
+
+    static BlockState randomWheat(Random random) {
+        return TestFixtures.wheat(random.nextInt(8));
+    }
+
+    /**
+     * The same sections after the chunk was saved and loaded again, which compacts each palette
+     */
+    static List<ChunkBasedCache.SectionSnapshot> saveAndLoad(List<ChunkBasedCache.SectionSnapshot> sections) {
+        List<ChunkBasedCache.SectionSnapshot> reloaded = new ArrayList<>(sections.size());
+        for (ChunkBasedCache.SectionSnapshot section : sections) {
+            reloaded.add(new ChunkBasedCache.SectionSnapshot(section.sectionY(), TestFixtures.saveAndLoad(section.states())));
+        }
+        return reloaded;
+    }
+
+    /**
+     * The sections of a chunk that may hold tracked blocks, as the cache captures them on load
+     */
+    static List<ChunkBasedCache.SectionSnapshot> farmChunk(Random random, double density) {
+        List<ChunkBasedCache.SectionSnapshot> sections = new ArrayList<>();
+        sections.add(new ChunkBasedCache.SectionSnapshot(FARM_Y >> 4, farmSection(random, density)));
+        return sections;
+    }
+
+    /**
+     * Fills a square of chunks around the origin with wheat on the farm surface, straight into the index.
+     * A third of the crops are ripe and so consumable.
+     */
+    static void plantWheat(ChunkBasedCache cache, LevelIndex index, int chunkRadius, double density, Random random) {
+        byte wheat = cache.getTypeId(TestFixtures.wheatTracker(cache));
+        int packedY = FARM_Y + 1;
+        for (int chunkX = -chunkRadius; chunkX <= chunkRadius; chunkX++) {
+            for (int chunkZ = -chunkRadius; chunkZ <= chunkRadius; chunkZ++) {
+                ChunkBlockIndex blocks = new ChunkBlockIndex(4);
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (random.nextDouble() < density) {
+                            blocks.put(ChunkRelativePos.pack(x, packedY, z), wheat, random.nextInt(3) == 0);
+                        }
+                    }
+                }
+                if (!blocks.isEmpty()) {
+                    blocks.trim();
+                    index.chunks.put(ChunkPos.asLong(chunkX, chunkZ), blocks);
+                }
+                index.scannedChunks.add(ChunkPos.asLong(chunkX, chunkZ));
+            }
+        }
+    }
+
+    /**
+     * Random positions on the farm surface within {@code blockRadius} of the origin
+     */
+    static BlockPos[] randomPositions(Random random, int count, int blockRadius, int y) {
+        BlockPos[] positions = new BlockPos[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = new BlockPos(random.nextInt(blockRadius * 2 + 1) - blockRadius, y, random.nextInt(blockRadius * 2 + 1) - blockRadius);
+        }
+        return positions;
+    }
+}
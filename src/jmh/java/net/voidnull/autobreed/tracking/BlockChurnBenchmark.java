@@ -0,0 +1,80 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block updates as the end-of-tick journal applies them: crops growing and being eaten, and
+ * crops being broken and replanted, over an index of a large farm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlockChurnBenchmark {
+    private static final int FIELD_BLOCK_RADIUS = 64;
+    private static final int CHANGES = 4096;
+
+    private ChunkBasedCache cache;
+    private LevelIndex index;
+    private BlockPos[] positions;
+    private BlockState[] ages;
+    private int next;
+
+    @Setup
+    public void setup() {
+        cache = TestFixtures.newCache();
+        index = BenchmarkFixtures.newIndex();
+        Random random = new Random(BenchmarkFixtures.SEED);
+        int y = BenchmarkFixtures.FARM_Y + 1;
+        // Plant through the same path the journal uses, so tracker state matches the index
+        for (int x = -FIELD_BLOCK_RADIUS; x < FIELD_BLOCK_RADIUS; x++) {
+            for (int z = -FIELD_BLOCK_RADIUS; z < FIELD_BLOCK_RADIUS; z++) {
+                cache.applyChange(index, new BlockPos(x, y, z), null, BenchmarkFixtures.randomWheat(random));
+            }
+        }
+        positions = BenchmarkFixtures.randomPositions(random, CHANGES, FIELD_BLOCK_RADIUS - 1, y);
+        ages = new BlockState[CHANGES];
+        for (int i = 0; i < CHANGES; i++) {
+            ages[i] = BenchmarkFixtures.randomWheat(random);
+        }
+    }
+
+    /**
+     * A crop changing age: grown by a random tick or bone meal, or reset by an animal eating it
+     */
+    @Benchmark
+    public void cropStateChange() {
+        int i = next;
+        next = (next + 1) % CHANGES;
+        cache.applyChange(index, positions[i], null, ages[i]);
+    }
+
+    /**
+     * A crop broken and replanted in the same spot, as by a player or a farming machine
+     */
+    @Benchmark
+    public void breakAndReplant() {
+        int i = next;
+        next = (next + 1) % CHANGES;
+        cache.applyChange(index, positions[i], null, Blocks.AIR.defaultBlockState());
+        cache.applyChange(index, positions[i], null, ages[i]);
+    }
+
+    /**
+     * Recording a change in the journal, which is all a block event costs during the tick
+     */
+    @Benchmark
+    public boolean journalRecord() {
+        int i = next;
+        next = (next + 1) % CHANGES;
+        if (index.pendingChanges.size() >= CHANGES) {
+            index.pendingChanges.clear();
+        }
+        return index.pendingChanges.add(positions[i].asLong());
+    }
+}
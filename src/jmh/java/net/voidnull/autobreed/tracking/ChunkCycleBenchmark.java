@@ -0,0 +1,85 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A farm chunk unloading and loading again, through each way the index can be rebuilt:
+ * a full scan, or reinstating the index parked in the recently unloaded cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkCycleBenchmark {
+    private static final int CHUNKS = 64;
+
+    @Param({"0.1", "0.9"})
+    public double density;
+
+    private ChunkBasedCache cache;
+    private LevelIndex index;
+    private List<ChunkBasedCache.SectionSnapshot>[] chunks;
+    // The same chunks as read back from disk, with compacted palettes
+    private List<ChunkBasedCache.SectionSnapshot>[] reloadedChunks;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        cache = TestFixtures.newCache();
+        index = BenchmarkFixtures.newIndex();
+        Random random = new Random(BenchmarkFixtures.SEED);
+        chunks = new List[CHUNKS];
+        reloadedChunks = new List[CHUNKS];
+        for (int i = 0; i < CHUNKS; i++) {
+            chunks[i] = BenchmarkFixtures.farmChunk(random, density);
+            reloadedChunks[i] = BenchmarkFixtures.saveAndLoad(chunks[i]);
+        }
+    }
+
+    /**
+     * Load without any saved or parked index: fingerprint, scan and publish, then unload
+     */
+    @Benchmark
+    public int scanCycle() {
+        int i = next;
+        next = (next + 1) % CHUNKS;
+        ChunkPos chunkPos = new ChunkPos(i, 0);
+        long chunkKey = chunkPos.toLong();
+        List<ChunkBasedCache.SectionSnapshot> sections = chunks[i];
+        SectionFingerprints.of(sections, cache::isTracked);
+        cache.publishScan(index, chunkKey, null, cache.scanSections(Level.OVERWORLD, chunkPos, sections));
+        ChunkBlockIndex blocks = index.chunks.remove(chunkKey);
+        index.scannedChunks.remove(chunkKey);
+        return blocks == null ? 0 : blocks.size();
+    }
+
+    /**
+     * Unload into the recently unloaded cache and load again unchanged: the live sections are
+     * fingerprinted on unload and the reloaded ones on load, then the parked index is checked
+     * and handed back. Fails if an unchanged chunk does not match after its palettes were compacted.
+     */
+    @Benchmark
+    public int parkCycle() {
+        int i = next;
+        next = (next + 1) % CHUNKS;
+        long chunkKey = ChunkPos.asLong(i, 0);
+        List<ChunkBasedCache.SectionSnapshot> sections = chunks[i];
+        if (!index.scannedChunks.contains(chunkKey)) {
+            // First visit: index the chunk once, outside of what later iterations measure
+            cache.publishScan(index, chunkKey, null, cache.scanSections(Level.OVERWORLD, new ChunkPos(chunkKey), sections));
+        }
+        ChunkBlockIndex blocks = index.chunks.get(chunkKey);
+        index.recentChunks.put(chunkKey, blocks, SectionFingerprints.of(sections, cache::isTracked), CHUNKS, Long.MAX_VALUE, (key, entry) -> {});
+        RecentChunkCache.Entry parked = index.recentChunks.take(chunkKey);
+        if (!parked.sections().matches(SectionFingerprints.of(reloadedChunks[i], cache::isTracked))) {
+            throw new IllegalStateException("Parked index of unchanged chunk " + i + " was rejected");
+        }
+        return parked.blocks() == null ? 0 : parked.blocks().size();
+    }
+}
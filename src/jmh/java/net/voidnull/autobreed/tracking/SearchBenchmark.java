@@ -0,0 +1,72 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.BlockPos;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-block and radius searches over a field of wheat, at several radii and crop densities
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchBenchmark {
+    private static final int VERTICAL_RADIUS = 4;
+    // Chunks of farm in every direction from the origin; covers the widest search
+    private static final int FIELD_CHUNK_RADIUS = 4;
+    private static final int START_POSITIONS = 1024;
+
+    @Param({"8", "16", "32"})
+    public int radius;
+
+    // Share of surface cells holding wheat
+    @Param({"0.01", "0.1", "0.9"})
+    public double density;
+
+    private ChunkBasedCache cache;
+    private TrackedBlock wheat;
+    private LevelIndex index;
+    private BlockPos[] starts;
+    private int next;
+
+    @Setup
+    public void setup() {
+        cache = TestFixtures.newCache();
+        wheat = TestFixtures.wheatTracker(cache);
+        index = BenchmarkFixtures.newIndex();
+        Random random = new Random(BenchmarkFixtures.SEED);
+        BenchmarkFixtures.plantWheat(cache, index, FIELD_CHUNK_RADIUS, density, random);
+        starts = BenchmarkFixtures.randomPositions(random, START_POSITIONS, 48, BenchmarkFixtures.FARM_Y + 1);
+    }
+
+    private BlockPos nextStart() {
+        BlockPos start = starts[next];
+        next = (next + 1) % starts.length;
+        return start;
+    }
+
+    /**
+     * A lone animal searching: every query builds its candidate list from scratch
+     */
+    @Benchmark
+    public long findNearestCold() {
+        index.queryMemo.clear();
+        return cache.findNearestPacked(index, nextStart(), radius, VERTICAL_RADIUS, wheat, true, null);
+    }
+
+    /**
+     * A herd searching in the same tick: queries share memoized candidate lists
+     */
+    @Benchmark
+    public long findNearestMemoized() {
+        return cache.findNearestPacked(index, nextStart(), radius, VERTICAL_RADIUS, wheat, true, null);
+    }
+
+    @Benchmark
+    public void forEachInRadius(Blackhole blackhole) {
+        cache.forEachInRadius(index, nextStart(), radius, VERTICAL_RADIUS, wheat, false, blackhole::consume);
+    }
+}
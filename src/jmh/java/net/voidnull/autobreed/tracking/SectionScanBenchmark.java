@@ -0,0 +1,45 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Palette sweep of one chunk section, as done for every section of a newly loaded chunk
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SectionScanBenchmark {
+    @Param({"empty", "stone", "wheat_farm"})
+    public String palette;
+
+    private ChunkBasedCache cache;
+    private PalettedContainer<BlockState> section;
+
+    @Setup
+    public void setup() {
+        cache = TestFixtures.newCache();
+        Random random = new Random(BenchmarkFixtures.SEED);
+        section = switch (palette) {
+            case "empty" -> TestFixtures.emptySection();
+            case "stone" -> BenchmarkFixtures.stoneSection(random);
+            case "wheat_farm" -> BenchmarkFixtures.farmSection(random, 0.95);
+            default -> throw new IllegalArgumentException(palette);
+        };
+    }
+
+    @Benchmark
+    public int scan(Blackhole blackhole) {
+        return SectionScanner.scan(section, cache::getTracker, (index, state, tracker) -> blackhole.consume(index));
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return SectionScanner.fingerprint(section, cache::isTracked);
+    }
+}
@@ -3,13 +3,13 @@ package net.voidnull.autobreed;
 import net.neoforged.fml.ModLoadingContext;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.neoforge.event.entity.EntityJoinLevelEvent;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.minecraft.world.entity.animal.Animal;
-import net.minecraft.world.item.Items;
 import net.voidnull.autobreed.goals.*;
 import net.voidnull.autobreed.tracking.*;
 
@@ -36,6 +36,9 @@ public class AutoBreed {
         
         // Register for mod events
         modEventBus.addListener(this::commonSetup);
+        modEventBus.addListener(this::onConfigLoad);
+        modEventBus.addListener(this::onConfigReload);
+        AutoBreedAttachments.ATTACHMENT_TYPES.register(modEventBus);
         
         // Initialize our block tracking system
         blockTracker = new BlockTrackingHandler();
@@ -43,6 +46,7 @@ public class AutoBreed {
         // Register for forge events
         NeoForge.EVENT_BUS.register(this);
         NeoForge.EVENT_BUS.register(blockTracker);
+        NeoForge.EVENT_BUS.addListener(AutoBreedCommands::register);
         
         LOGGER.info("AutoBreed mod initialization completed.");
     }
@@ -51,9 +55,31 @@ public class AutoBreed {
         // Any common setup code goes here
     }
     
+    private void onConfigLoad(final ModConfigEvent.Loading event) {
+        applyConfig(event.getConfig());
+    }
+    
+    private void onConfigReload(final ModConfigEvent.Reloading event) {
+        applyConfig(event.getConfig());
+    }
+    
+    // Settings read on hot paths are cached in plain fields rather than looked up each time
+    private static void applyConfig(ModConfig config) {
+        if (config.getSpec() == AutoBreedConfig.SPEC) {
+            PerformanceMetrics.setEnabled(AutoBreedConfig.PERFORMANCE_METRICS.get());
+        }
+    }
+    
     @SubscribeEvent
     public void onAnimalJoinWorld(EntityJoinLevelEvent event) {
+        // Goals only run on the server, and the diet profiles belong to the server thread
+        if (event.getLevel().isClientSide()) {
+            return;
+        }
         if (event.getEntity() instanceof Animal animal) {
+            // Probed once per species, so joining animals no longer test each food item
+            DietProfile diet = blockTracker.getDietProfiles().get(animal);
+            
             // Food item goals (for all animals)
             TargetFoodGoal targetFoodGoal = new TargetFoodGoal(animal);
             ConsumeFoodGoal consumeFoodGoal = new ConsumeFoodGoal(animal, targetFoodGoal);
@@ -68,7 +94,7 @@ public class AutoBreed {
             animal.goalSelector.addGoal(4, new TargetItemFrameGoal(animal));
             
             // Only add hay bale and crop goals for animals that eat wheat
-            if (animal.isFood(Items.WHEAT.getDefaultInstance())) {
+            if (diet.eatsHay()) {
                 // Hay bale goals
                 TargetHayBlockGoal targetHayGoal = new TargetHayBlockGoal(animal, blockTracker.getHayBaleTracker());
                 ConsumeHayBaleGoal consumeHayGoal = new ConsumeHayBaleGoal(animal, targetHayGoal);
@@ -77,18 +103,13 @@ public class AutoBreed {
                 animal.goalSelector.addGoal(2, consumeHayGoal);
                 animal.goalSelector.addGoal(3, targetHayGoal);
                 
-                // Add crop goals for wheat
-                addCropGoals(animal, CropType.WHEAT, 2);
-            }
-            
-            // Add carrot goals for animals that eat carrots
-            if (animal.isFood(Items.CARROT.getDefaultInstance())) {
-                addCropGoals(animal, CropType.CARROTS, 2);
             }
             
-            // Add potato goals for animals that eat potatoes
-            if (animal.isFood(Items.POTATO.getDefaultInstance())) {
-                addCropGoals(animal, CropType.POTATOES, 2);
+            // Add crop goals for every crop the species eats
+            for (CropType cropType : CropType.values()) {
+                if (diet.eatsCrop(cropType)) {
+                    addCropGoals(animal, cropType, 2);
+                }
             }
         }
     }
@@ -0,0 +1,21 @@
+package net.voidnull.autobreed;
+
+import net.neoforged.neoforge.attachment.AttachmentType;
+import net.neoforged.neoforge.registries.DeferredRegister;
+import net.neoforged.neoforge.registries.NeoForgeRegistries;
+import net.voidnull.autobreed.tracking.ChunkIndexSnapshot;
+import java.util.function.Supplier;
+
+/**
+ * Data attachments registered by the mod
+ */
+public class AutoBreedAttachments {
+    public static final DeferredRegister<AttachmentType<?>> ATTACHMENT_TYPES =
+        DeferredRegister.create(NeoForgeRegistries.ATTACHMENT_TYPES, AutoBreed.MODID);
+
+    // A chunk's tracked blocks, saved with the chunk so loading it can skip the scan
+    public static final Supplier<AttachmentType<ChunkIndexSnapshot>> CHUNK_INDEX = ATTACHMENT_TYPES.register(
+        "chunk_index", () -> AttachmentType.builder(() -> ChunkIndexSnapshot.EMPTY)
+            .serialize(ChunkIndexSnapshot.SERIALIZER)
+            .build());
+}
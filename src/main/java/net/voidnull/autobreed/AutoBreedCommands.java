@@ -0,0 +1,71 @@
+package net.voidnull.autobreed;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.voidnull.autobreed.tracking.ChunkBasedCache;
+import net.voidnull.autobreed.tracking.PerformanceMetrics;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The /autobreed command tree
+ */
+public final class AutoBreedCommands {
+    // Operations counted as food searches in the per-tick rate
+    private static final Set<String> SEARCH_OPERATIONS = Set.of("find_nearest", "radius_search");
+
+    private AutoBreedCommands() {}
+
+    public static void register(RegisterCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal(AutoBreed.MODID)
+            .requires(source -> source.hasPermission(Commands.LEVEL_GAMEMASTERS))
+            .then(Commands.literal("stats")
+                .executes(context -> showStats(context.getSource()))));
+    }
+
+    /**
+     * Shows timings over the rolling window and the size of each dimension's index
+     */
+    private static int showStats(CommandSourceStack source) {
+        if (!PerformanceMetrics.isEnabled()) {
+            send(source, "Performance metrics are off (performanceMetrics in the AutoBreed config); showing index sizes only");
+        } else {
+            int ticks = Math.max(1, PerformanceMetrics.windowTicks());
+            send(source, "AutoBreed timings over the last %d s (ms):", ticks / 20);
+            long searches = 0;
+            for (PerformanceMetrics.Summary timing : PerformanceMetrics.windowSummaries()) {
+                if (timing.count() == 0) {
+                    continue;
+                }
+                send(source, "  %s: %d calls, avg %.3f, p50 %.3f, p99 %.3f, p99.9 %.3f, max %.3f, %.3f ms/tick",
+                    timing.operation(), timing.count(), timing.meanMs(), timing.p50Ms(), timing.p99Ms(),
+                    timing.p999Ms(), timing.maxMs(), timing.totalMs() / ticks);
+                if (SEARCH_OPERATIONS.contains(timing.operation())) {
+                    searches += timing.count();
+                }
+            }
+            send(source, "  Searches per tick: %.2f", (double) searches / ticks);
+            for (PerformanceMetrics.HitSummary rate : PerformanceMetrics.windowHitRates()) {
+                if (rate.lookups() > 0) {
+                    send(source, "  %s hit rate: %.1f%% of %d lookups", rate.cache(), rate.hitPercent(), rate.lookups());
+                }
+            }
+        }
+
+        for (ChunkBasedCache.IndexStats stats : AutoBreed.getBlockTracker().getBlockCache().indexStats()) {
+            send(source, "Index %s: %d chunks scanned, %d blocks (%d consumable) in %d chunks, ~%d KiB, %d scans pending, %d recent chunks (~%d KiB)",
+                stats.dimension().location(), stats.scannedChunks(), stats.blocks(), stats.consumable(),
+                stats.chunksWithBlocks(), stats.bytes() / 1024, stats.pendingScans(),
+                stats.recentChunks(), stats.recentBytes() / 1024);
+        }
+        return 1;
+    }
+
+    private static void send(CommandSourceStack source, String format, Object... args) {
+        String message = String.format(Locale.ROOT, format, args);
+        source.sendSuccess(() -> Component.literal(message), false);
+    }
+}
@@ -1,6 +1,7 @@
 package net.voidnull.autobreed;
 
 import net.neoforged.neoforge.common.ModConfigSpec;
+import net.voidnull.autobreed.tracking.MetricsExporter;
 
 public class AutoBreedConfig {
     public static final ModConfigSpec.Builder BUILDER = new ModConfigSpec.Builder();
@@ -10,6 +11,20 @@ public class AutoBreedConfig {
     public static final ModConfigSpec.IntValue BABY_GROWTH_BOOST_TICKS;
     public static final ModConfigSpec.IntValue SEARCH_RADIUS;
     public static final ModConfigSpec.IntValue SEARCH_VERTICAL_RADIUS;
+    public static final ModConfigSpec.IntValue TARGET_CLAIM_TICKS;
+
+    public static final ModConfigSpec.IntValue ASYNC_SCAN_THREADS;
+    public static final ModConfigSpec.IntValue ASYNC_SCAN_QUEUE_SIZE;
+    public static final ModConfigSpec.IntValue ASYNC_SCAN_PUBLISH_BUDGET;
+    public static final ModConfigSpec.IntValue SEARCH_BACKOFF_MAX_TICKS;
+    public static final ModConfigSpec.BooleanValue EVENT_WAKEUPS;
+    public static final ModConfigSpec.IntValue WAKEUP_FALLBACK_TICKS;
+    public static final ModConfigSpec.BooleanValue PERSIST_CHUNK_INDEX;
+    public static final ModConfigSpec.IntValue RECENT_CHUNK_CACHE_SIZE;
+    public static final ModConfigSpec.IntValue RECENT_CHUNK_CACHE_KIB;
+    public static final ModConfigSpec.BooleanValue PERFORMANCE_METRICS;
+    public static final ModConfigSpec.IntValue METRICS_EXPORT_INTERVAL_SECONDS;
+    public static final ModConfigSpec.EnumValue<MetricsExporter.Format> METRICS_EXPORT_FORMAT;
 
     static {
         BUILDER.comment("AutoBreed Configuration");
@@ -31,10 +46,88 @@ public class AutoBreedConfig {
             .defineInRange("searchRadius", 16, 1, 32);
 
         SEARCH_VERTICAL_RADIUS = BUILDER
-            .comment("How far (in blocks) animals will search vertically for food sources",
+            .comment("How far (in blocks) animals will search vertically for food sources, including hay bales and crops",
                     "Default: 4 blocks")
             .defineInRange("searchVerticalRadius", 4, 1, 8);
 
+        TARGET_CLAIM_TICKS = BUILDER
+            .comment("How long an animal's claim on a hay bale or crop lasts before other animals may target it again",
+                    "Claims are renewed while the animal keeps heading for its target",
+                    "Default: 60 ticks (3 seconds)")
+            .defineInRange("targetClaimTicks", 60, 20, 1200);
+
+        BUILDER.pop();
+
+        BUILDER.push("performance");
+
+        ASYNC_SCAN_THREADS = BUILDER
+            .comment("How many worker threads scan newly loaded chunks for hay bales and crops",
+                    "Set to 0 to scan on the server thread as chunks load",
+                    "Default: 2 threads")
+            .defineInRange("asyncScanThreads", 2, 0, 8);
+
+        ASYNC_SCAN_QUEUE_SIZE = BUILDER
+            .comment("How many loaded chunks may wait for a scan worker, each holding a copy of its sections",
+                    "Chunks loading while the queue is full are scanned on the server thread instead",
+                    "Default: 256 chunks")
+            .defineInRange("asyncScanQueueSize", 256, 1, 65536);
+
+        ASYNC_SCAN_PUBLISH_BUDGET = BUILDER
+            .comment("How many finished chunk scans are published into the block index per server tick",
+                    "Default: 64 chunks")
+            .defineInRange("asyncScanPublishBudget", 64, 1, 4096);
+
+        SEARCH_BACKOFF_MAX_TICKS = BUILDER
+            .comment("Longest wait (in ticks) between food searches for an animal whose recent searches found nothing",
+                    "The wait doubles after each empty search up to this limit, and resets once food is found or the animal moves",
+                    "Default: 40 ticks (2 seconds)")
+            .defineInRange("searchBackoffMaxTicks", 40, 1, 1200);
+
+        EVENT_WAKEUPS = BUILDER
+            .comment("Whether idle animals sleep until a crop ripens, hay is placed or food is dropped nearby, instead of polling",
+                    "Default: true")
+            .define("eventWakeups", true);
+
+        WAKEUP_FALLBACK_TICKS = BUILDER
+            .comment("How long (in ticks) a sleeping animal waits for a wake-up before searching anyway",
+                    "Default: 200 ticks (10 seconds)")
+            .defineInRange("wakeupFallbackTicks", 200, 20, 6000);
+
+        PERSIST_CHUNK_INDEX = BUILDER
+            .comment("Whether the hay bales and crops found in a chunk are saved with it, so loading it again skips the scan",
+                    "Saved data is checked against the chunk's blocks, and chunks changed outside the game are scanned again",
+                    "Default: true")
+            .define("persistChunkIndex", true);
+
+        RECENT_CHUNK_CACHE_SIZE = BUILDER
+            .comment("How many recently unloaded chunks per dimension keep their hay bales and crops in memory, so reloading them skips the scan",
+                    "Set to 0 to disable",
+                    "Default: 256 chunks")
+            .defineInRange("recentChunkCacheSize", 256, 0, 65536);
+
+        RECENT_CHUNK_CACHE_KIB = BUILDER
+            .comment("Memory limit (in KiB) for the recently unloaded chunks kept per dimension",
+                    "Default: 1024 KiB")
+            .defineInRange("recentChunkCacheKiB", 1024, 0, 1048576);
+
+        PERFORMANCE_METRICS = BUILDER
+            .comment("Whether chunk scans, block updates and food searches are timed, with percentiles logged on world save",
+                    "Turning this off leaves almost no measuring cost",
+                    "Default: true")
+            .define("performanceMetrics", true);
+
+        METRICS_EXPORT_INTERVAL_SECONDS = BUILDER
+            .comment("How often (in seconds) timings are appended to autobreed-metrics.csv or .jsonl in the server directory,",
+                    "for comparing AutoBreed's cost with tick times over long sessions. Rounded up to whole 10 second steps",
+                    "Set to 0 to disable",
+                    "Default: 0 (disabled)")
+            .defineInRange("metricsExportIntervalSeconds", 0, 0, 86400);
+
+        METRICS_EXPORT_FORMAT = BUILDER
+            .comment("File format of the timing export: CSV (one row per operation) or JSON (one object per line)",
+                    "Default: CSV")
+            .defineEnum("metricsExportFormat", MetricsExporter.Format.CSV);
+
         BUILDER.pop();
         SPEC = BUILDER.build();
     }
@@ -1,13 +1,19 @@
 package net.voidnull.autobreed.goals;
 
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.animal.Animal;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
 import net.voidnull.autobreed.AutoBreedConfig;
+import net.voidnull.autobreed.jfr.ConsumeDecisionEvent;
+import net.voidnull.autobreed.tracking.PerformanceMetrics;
 import java.util.EnumSet;
 
 public abstract class AbstractConsumeGoal<T, G extends AbstractTargetGoal<T>> extends Goal {
+    private static final PerformanceMetrics.Timer CONSUME_TIMER = PerformanceMetrics.timer("goal_consume");
+
     protected final Animal animal;
     protected final G targetGoal;
     protected int cooldown = 0;
@@ -35,25 +41,48 @@ public abstract class AbstractConsumeGoal<T, G extends AbstractTargetGoal<T>> ex
             return false;
         }
         
-        T target = targetGoal.getTarget();
+        long started = CONSUME_TIMER.start();
+        ConsumeDecisionEvent event = new ConsumeDecisionEvent();
+        event.begin();
+        String result = decide(targetGoal.getTarget());
+        CONSUME_TIMER.stop(started);
+        if (event.shouldCommit()) {
+            BlockPos pos = animal.blockPosition();
+            event.dimension = animal.level().dimension().location().toString();
+            event.x = pos.getX();
+            event.y = pos.getY();
+            event.z = pos.getZ();
+            event.animal = BuiltInRegistries.ENTITY_TYPE.getKey(animal.getType()).toString();
+            event.goal = getClass().getSimpleName();
+            event.result = result;
+            event.commit();
+        }
+        return ConsumeDecisionEvent.HIT.equals(result);
+    }
+
+    /**
+     * Decides whether to eat the target now, remembering it if so
+     * @return one of the {@link ConsumeDecisionEvent} results
+     */
+    private String decide(T target) {
         if (target == null || !isTargetValid(target)) {
-            return false;
+            return ConsumeDecisionEvent.INVALID;
         }
 
         if (animal.isBaby()) {
             targetResource = target;
-            return true;
+            return ConsumeDecisionEvent.HIT;
         }
 
-        if (animal.isInLove()) return false;
-        if (!animal.canFallInLove()) return false;
-        if (animal.canBreed()) return false;
-        if (animal.getAge() != 0) return false;
+        if (animal.isInLove()) return ConsumeDecisionEvent.MISS;
+        if (!animal.canFallInLove()) return ConsumeDecisionEvent.MISS;
+        if (animal.canBreed()) return ConsumeDecisionEvent.MISS;
+        if (animal.getAge() != 0) return ConsumeDecisionEvent.MISS;
 
-        if (!canConsumeTarget(target)) return false;
+        if (!canConsumeTarget(target)) return ConsumeDecisionEvent.MISS;
 
         targetResource = target;
-        return true;
+        return ConsumeDecisionEvent.HIT;
     }
 
     @Override
@@ -70,7 +99,12 @@ public abstract class AbstractConsumeGoal<T, G extends AbstractTargetGoal<T>> ex
         animal.level().playSound(null, animal, SoundEvents.GENERIC_EAT, SoundSource.NEUTRAL, 1.0F, 1.0F);
 
         // Consume the target
-        consumeTarget();
+        long started = CONSUME_TIMER.start();
+        try {
+            consumeTarget();
+        } finally {
+            CONSUME_TIMER.stop(started);
+        }
 
         // Set cooldown
         cooldown = getEatingCooldownTicks();
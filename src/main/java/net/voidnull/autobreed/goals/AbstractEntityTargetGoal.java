@@ -3,7 +3,6 @@ package net.voidnull.autobreed.goals;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.animal.Animal;
 import net.minecraft.world.phys.Vec3;
-import net.voidnull.autobreed.AutoBreedConfig;
 
 public abstract class AbstractEntityTargetGoal<T extends Entity> extends AbstractTargetGoal<T> {
 
@@ -37,21 +36,5 @@ public abstract class AbstractEntityTargetGoal<T extends Entity> extends Abstrac
         return target.position();
     }
 
-    protected abstract Class<T> getTargetClass();
     protected abstract boolean isValidFoodSource(T entity);
-
-    @Override
-    protected T findTarget() {
-        return this.animal.level().getEntitiesOfClass(getTargetClass(),
-            this.animal.getBoundingBox().inflate(
-                AutoBreedConfig.SEARCH_RADIUS.get(),
-                AutoBreedConfig.SEARCH_VERTICAL_RADIUS.get(),
-                AutoBreedConfig.SEARCH_RADIUS.get()))
-            .stream()
-            .filter(this::isValidFoodSource)
-            .min((a, b) -> Double.compare(
-                animal.distanceToSqr(a),
-                animal.distanceToSqr(b)))
-            .orElse(null);
-    }
-} 
\ No newline at end of file
+}
@@ -3,10 +3,18 @@ package net.voidnull.autobreed.goals;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.animal.Animal;
 import net.minecraft.world.entity.ai.navigation.PathNavigation;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.Vec3;
+import net.voidnull.autobreed.AutoBreed;
+import net.voidnull.autobreed.tracking.DietProfile;
+import net.voidnull.autobreed.tracking.PerformanceMetrics;
+import net.voidnull.autobreed.tracking.TargetWakeups;
 import java.util.EnumSet;
+import java.util.function.LongPredicate;
 
 public abstract class AbstractTargetGoal<T> extends Goal {
+    private static final PerformanceMetrics.Timer TARGET_SEARCH_TIMER = PerformanceMetrics.timer("goal_target_search");
+
     protected final Animal animal;
     protected T targetEntity;
     protected final PathNavigation pathNav;
@@ -14,11 +22,16 @@ public abstract class AbstractTargetGoal<T> extends Goal {
     protected static final double BASE_TARGET_DISTANCE = 1.5D;
     protected int timeToRecalcPath;
     protected boolean isRunning;
+    // Spaces out searches while nothing is found
+    protected final SearchBackoff searchBackoff;
+    // Created on first use; it reads the live claims, so one instance serves every search
+    private LongPredicate claimedByOthers;
 
     protected AbstractTargetGoal(Animal animal, double speedModifier) {
         this.animal = animal;
         this.speedModifier = speedModifier;
         this.pathNav = animal.getNavigation();
+        this.searchBackoff = new SearchBackoff(animal, getWakeKind(), this::isWakeBlock);
         this.setFlags(EnumSet.of(Goal.Flag.MOVE, Goal.Flag.LOOK));
     }
 
@@ -29,6 +42,58 @@ public abstract class AbstractTargetGoal<T> extends Goal {
     protected abstract boolean isTargetValid();
     protected abstract Vec3 getTargetPos(T target);
 
+    /**
+     * The wake-up that ends this goal's idle sleep, or null if it has to poll with backoff.
+     * Called from the constructor, so implementations must return a constant.
+     */
+    protected TargetWakeups.Kind getWakeKind() {
+        return null;
+    }
+
+    /**
+     * Whether a block announced under {@link #getWakeKind} is one this goal targets
+     */
+    protected boolean isWakeBlock(BlockState state) {
+        return true;
+    }
+
+    /**
+     * The animal's cached diet; looked up each time so a tag reload takes effect
+     */
+    protected DietProfile getDiet() {
+        return AutoBreed.getBlockTracker().getDietProfiles().get(animal);
+    }
+
+    /**
+     * A search filter that passes over targets other animals have claimed
+     */
+    protected LongPredicate claimedByOthers() {
+        if (claimedByOthers == null) {
+            claimedByOthers = AutoBreed.getBlockTracker().getReservations().claimedByOthers(animal.level(), animal.getId());
+        }
+        return claimedByOthers;
+    }
+
+    /**
+     * Releases anything held on behalf of the animal once it leaves the level
+     */
+    public void onOwnerRemoved() {
+        searchBackoff.unsubscribe();
+    }
+
+    /**
+     * Reserves a target so other animals pass it over. Called on start and renewed
+     * while the goal runs; goals whose targets are not shared leave this empty.
+     */
+    protected void claimTarget(T target) {
+    }
+
+    /**
+     * Releases a reservation made by {@link #claimTarget}
+     */
+    protected void releaseTarget(T target) {
+    }
+
     protected double getDesiredTargetDistance() {
         // Default implementation - can be overridden by subclasses
         return Math.max(BASE_TARGET_DISTANCE, animal.getBbWidth() + 0.5D);
@@ -54,17 +119,43 @@ public abstract class AbstractTargetGoal<T> extends Goal {
         return Math.sqrt(dx * dx + dz * dz + dy * dy);
     }
 
+    /**
+     * Timed here so every target goal is covered; subclasses add their checks to {@link #checkCanUse}
+     */
     @Override
-    public boolean canUse() {
+    public final boolean canUse() {
+        long started = TARGET_SEARCH_TIMER.start();
+        try {
+            return checkCanUse();
+        } finally {
+            TARGET_SEARCH_TIMER.stop(started);
+        }
+    }
+
+    /**
+     * Keeps a still valid target, or searches for a new one unless searches are backing off
+     */
+    protected boolean checkCanUse() {
         if (targetEntity != null && isTargetValid() && canMoveToTarget()) {
             return true;
         }
         
+        if (!searchBackoff.shouldSearch()) return false;
+        
         T newTarget = findTarget();
-        if (newTarget == null) return false;
+        if (newTarget == null) {
+            searchBackoff.onSearched(false);
+            return false;
+        }
         
         targetEntity = newTarget;
-        return canMoveToTarget();
+        boolean canMove = canMoveToTarget();
+        if (canMove) {
+            searchBackoff.onSearched(true);
+        } else {
+            searchBackoff.onTargetUnreachable();
+        }
+        return canMove;
     }
 
     @Override
@@ -79,12 +170,16 @@ public abstract class AbstractTargetGoal<T> extends Goal {
     public void start() {
         this.isRunning = true;
         this.timeToRecalcPath = 0;
+        claimTarget(targetEntity);
         updatePathToTarget();
     }
 
     @Override
     public void stop() {
         this.isRunning = false;
+        if (targetEntity != null) {
+            releaseTarget(targetEntity);
+        }
         this.targetEntity = null;
         this.pathNav.stop();
     }
@@ -101,6 +196,7 @@ public abstract class AbstractTargetGoal<T> extends Goal {
         // Update path periodically
         if (--this.timeToRecalcPath <= 0) {
             this.timeToRecalcPath = 10;
+            claimTarget(targetEntity);
             if (this.pathNav.isDone()) {
                 updatePathToTarget();
             }
@@ -39,7 +39,7 @@ public class ConsumeCropGoal extends AbstractConsumeGoal<BlockPos, TargetCropGoa
         }
         return target != null && 
                cropTracker.matches(animal.level().getBlockState(target)) && 
-               cropTracker.isFullyGrown(target);
+               cropTracker.isFullyGrown(animal.level().dimension(), target);
     }
 
     @Override
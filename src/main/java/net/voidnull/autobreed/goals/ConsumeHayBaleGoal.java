@@ -19,7 +19,7 @@ public class ConsumeHayBaleGoal extends AbstractConsumeGoal<BlockPos, TargetHayB
 
     @Override
     protected void consumeTarget() {
-        hayTracker.consumeHayBale(targetResource);
+        hayTracker.consumeHayBale(targetResource, animal.level());
     }
 
     @Override
@@ -0,0 +1,133 @@
+package net.voidnull.autobreed.goals;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.animal.Animal;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.state.BlockState;
+import net.voidnull.autobreed.AutoBreed;
+import net.voidnull.autobreed.AutoBreedConfig;
+import net.voidnull.autobreed.tracking.TargetWakeups;
+import java.util.function.Predicate;
+
+/**
+ * Decides when an idle target goal should search again.
+ * Goals whose targets announce themselves (ripe crops, placed hay, dropped food) sleep
+ * after an empty search until {@link TargetWakeups} wakes them or a long fallback
+ * timeout passes. Other goals back off instead: each empty search doubles the wait,
+ * up to the configured maximum. Both add a per-entity random jitter so a herd that
+ * went idle together does not search in lockstep. Finding a target or moving a few
+ * blocks away from the last search resets the wait.
+ */
+public class SearchBackoff implements TargetWakeups.Sleeper {
+    // Moving this far (squared, in blocks) since the last search makes old results meaningless
+    private static final int RESET_DISTANCE_SQ = 4 * 4;
+
+    private final Animal animal;
+    // What wakes this goal, or null if it can only poll
+    private final TargetWakeups.Kind wakeKind;
+    // Which of the announced blocks are worth waking for, e.g. only this goal's crop
+    private final Predicate<BlockState> wakeBlocks;
+    private int interval;
+    private long nextSearchTick;
+    private BlockPos lastSearchPos;
+    private boolean subscribed;
+
+    public SearchBackoff(Animal animal, TargetWakeups.Kind wakeKind, Predicate<BlockState> wakeBlocks) {
+        this.animal = animal;
+        this.wakeKind = wakeKind;
+        this.wakeBlocks = wakeBlocks;
+    }
+
+    /**
+     * @return true if the goal should run its search this tick
+     */
+    public boolean shouldSearch() {
+        if (interval == 0 || animal.level().getGameTime() >= nextSearchTick) {
+            return true;
+        }
+        if (lastSearchPos != null && animal.blockPosition().distSqr(lastSearchPos) > RESET_DISTANCE_SQ) {
+            reset();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the outcome of a search, scheduling the next one
+     */
+    public void onSearched(boolean found) {
+        lastSearchPos = animal.blockPosition();
+        if (found) {
+            unsubscribe();
+            reset();
+            return;
+        }
+
+        if (wakeKind != null && AutoBreedConfig.EVENT_WAKEUPS.get()) {
+            // Sleep until something appears nearby, with a long timeout as a safety net
+            AutoBreed.getBlockTracker().getWakeups().subscribe(animal.level(), lastSearchPos, this);
+            subscribed = true;
+            interval = AutoBreedConfig.WAKEUP_FALLBACK_TICKS.get();
+        } else {
+            backOff();
+        }
+        scheduleNext();
+    }
+
+    /**
+     * Records a search that found a target the animal cannot head for yet, e.g. while it is
+     * leashed or in the air. The target already exists, so no wake-up would come for it;
+     * the goal polls with backoff instead of sleeping.
+     */
+    public void onTargetUnreachable() {
+        lastSearchPos = animal.blockPosition();
+        unsubscribe();
+        backOff();
+        scheduleNext();
+    }
+
+    private void backOff() {
+        int maxInterval = AutoBreedConfig.SEARCH_BACKOFF_MAX_TICKS.get();
+        interval = interval == 0 ? 1 : Math.min(interval * 2, maxInterval);
+    }
+
+    private void scheduleNext() {
+        // Up to half the interval again, so searches spread over the ticks
+        int jitter = animal.getRandom().nextInt(interval / 2 + 1);
+        nextSearchTick = animal.level().getGameTime() + interval + jitter;
+    }
+
+    @Override
+    public boolean tryWake(TargetWakeups.Kind kind, BlockState state, ItemStack stack) {
+        if (kind != wakeKind) {
+            return false;
+        }
+        if (kind == TargetWakeups.Kind.FOOD_ITEM
+                ? !AutoBreed.getBlockTracker().getDietProfiles().get(animal).isFood(stack)
+                : !wakeBlocks.test(state)) {
+            return false;
+        }
+        // The registry drops the subscription itself
+        subscribed = false;
+        reset();
+        return true;
+    }
+
+    /**
+     * Makes the next call to {@link #shouldSearch} succeed
+     */
+    public void reset() {
+        interval = 0;
+        nextSearchTick = 0;
+    }
+
+    /**
+     * Drops any wake-up subscription, e.g. when the animal leaves the level
+     */
+    public void unsubscribe() {
+        if (subscribed) {
+            AutoBreed.getBlockTracker().getWakeups().unsubscribe(animal.level(), this);
+            subscribed = false;
+        }
+    }
+}
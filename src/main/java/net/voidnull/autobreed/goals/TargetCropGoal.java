@@ -2,10 +2,12 @@ package net.voidnull.autobreed.goals;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.animal.Animal;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.Vec3;
 import net.voidnull.autobreed.tracking.TrackedCrop;
 import net.voidnull.autobreed.AutoBreedConfig;
 import net.voidnull.autobreed.AutoBreed;
+import net.voidnull.autobreed.tracking.TargetWakeups;
 
 public class TargetCropGoal extends AbstractTargetGoal<BlockPos> {
     private final TrackedCrop cropTracker;
@@ -25,21 +27,36 @@ public class TargetCropGoal extends AbstractTargetGoal<BlockPos> {
         return cropTracker;
     }
 
+    @Override
+    protected TargetWakeups.Kind getWakeKind() {
+        return TargetWakeups.Kind.CROP;
+    }
+
+    @Override
+    protected boolean isWakeBlock(BlockState state) {
+        // Another crop ripening says nothing about this goal's crop
+        return cropTracker.matches(state);
+    }
+
     @Override
     protected boolean isValidTarget(BlockPos target) {
         if (target == null || target.equals(lastFailedTarget)) {
             return false;
         }
         boolean matches = cropTracker.matches(animal.level().getBlockState(target));
-        boolean grown = cropTracker.isFullyGrown(target);
+        boolean grown = cropTracker.isFullyGrown(animal.level().dimension(), target);
         return matches && grown;
     }
 
     @Override
     protected BlockPos findTarget() {
         BlockPos animalPos = animal.blockPosition();
+        // Only ripe crops are searched, so an unripe field yields nothing rather than a target that fails validation
+        // Crops claimed by other animals are skipped so a herd spreads over the field
         BlockPos target = AutoBreed.getBlockTracker().getBlockCache()
-            .findNearest(animalPos, AutoBreedConfig.SEARCH_RADIUS.get(), cropTracker);
+            .findNearest(animal.level(), animalPos,
+                AutoBreedConfig.SEARCH_RADIUS.get(), AutoBreedConfig.SEARCH_VERTICAL_RADIUS.get(), cropTracker, true,
+                claimedByOthers());
         
         // If we found the same target that recently failed, ignore it for a while
         if (target != null && target.equals(lastFailedTarget)) {
@@ -53,6 +70,17 @@ public class TargetCropGoal extends AbstractTargetGoal<BlockPos> {
         return target;
     }
 
+    @Override
+    protected void claimTarget(BlockPos target) {
+        AutoBreed.getBlockTracker().getReservations()
+            .claim(animal.level(), target.asLong(), animal.getId(), AutoBreedConfig.TARGET_CLAIM_TICKS.get());
+    }
+
+    @Override
+    protected void releaseTarget(BlockPos target) {
+        AutoBreed.getBlockTracker().getReservations().release(animal.level(), target.asLong(), animal.getId());
+    }
+
     @Override
     protected void updatePathToTarget() {
         if (targetEntity != null) {
@@ -83,38 +111,46 @@ public class TargetCropGoal extends AbstractTargetGoal<BlockPos> {
     }
 
     @Override
-    public boolean canUse() {
-        // First find a target
-        BlockPos newTarget = findTarget();
-        if (newTarget == null) {
-            return false;
-        }
-
-        // For babies, we only need to check if they can move to the target
-        if(animal.isBaby()) {
-            targetEntity = newTarget;
-            return canMoveToTarget();
+    protected boolean checkCanUse() {
+        // For adults, check breeding conditions before paying for a search
+        if (!animal.isBaby()) {
+            if(animal.isInLove()) {
+                return false;
+            }
+            if(!animal.canFallInLove()) {
+                return false;
+            }
+            if(animal.canBreed()) {
+                return false;
+            }
+            if(animal.getAge() != 0) {
+                return false;
+            }
+            if(!getDiet().eatsCrop(cropTracker.getCropType())) {
+                return false;
+            }
         }
 
-        // For adults, check breeding conditions
-        if(animal.isInLove()) {
-            return false;
-        }
-        if(!animal.canFallInLove()) {
-            return false;
-        }
-        if(animal.canBreed()) {
+        // Back off while recent searches came up empty
+        if (!searchBackoff.shouldSearch()) {
             return false;
         }
-        if(animal.getAge() != 0) {
-            return false;
-        }
-        if(!animal.isFood(cropTracker.getCropType().getCropItem().getDefaultInstance())) {
+
+        BlockPos newTarget = findTarget();
+        if (newTarget == null) {
+            searchBackoff.onSearched(false);
             return false;
         }
 
+        // For babies, we only need to check if they can move to the target
         targetEntity = newTarget;
-        return canMoveToTarget();
+        boolean canMove = canMoveToTarget();
+        if (canMove) {
+            searchBackoff.onSearched(true);
+        } else {
+            searchBackoff.onTargetUnreachable();
+        }
+        return canMove;
     }
 
     @Override
@@ -141,6 +177,9 @@ public class TargetCropGoal extends AbstractTargetGoal<BlockPos> {
     }
     
     public void clearTarget() {
+        if (targetEntity != null) {
+            releaseTarget(targetEntity);
+        }
         targetEntity = null;
     }
 } 
\ No newline at end of file
@@ -4,8 +4,9 @@ import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.animal.Animal;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.phys.Vec3;
+import net.voidnull.autobreed.tracking.TargetWakeups;
+import net.voidnull.autobreed.AutoBreed;
 import java.util.EnumSet;
-import java.util.List;
 
 public class TargetFoodGoal extends AbstractEntityTargetGoal<ItemEntity> {
 
@@ -19,13 +20,13 @@ public class TargetFoodGoal extends AbstractEntityTargetGoal<ItemEntity> {
     }
 
     @Override
-    protected Class<ItemEntity> getTargetClass() {
-        return ItemEntity.class;
+    protected boolean isValidFoodSource(ItemEntity entity) {
+        return getDiet().isFood(entity.getItem());
     }
 
     @Override
-    protected boolean isValidFoodSource(ItemEntity entity) {
-        return animal.isFood(entity.getItem());
+    protected TargetWakeups.Kind getWakeKind() {
+        return TargetWakeups.Kind.FOOD_ITEM;
     }
 
     @Override
@@ -35,15 +36,9 @@ public class TargetFoodGoal extends AbstractEntityTargetGoal<ItemEntity> {
 
     @Override
     protected ItemEntity findTarget() {
-        List<ItemEntity> items = this.animal.level().getEntitiesOfClass(ItemEntity.class,
-            this.animal.getBoundingBox().inflate(8.0D, 4.0D, 8.0D));
-        
-        return items.stream()
-            .filter(itemEntity -> animal.isFood(itemEntity.getItem()))
-            .min((a, b) -> Double.compare(
-                animal.distanceToSqr(a),
-                animal.distanceToSqr(b)))
-            .orElse(null);
+        // Only dropped food is indexed, and each item type is tested once per chunk
+        return AutoBreed.getBlockTracker().getFoodItemIndex().findNearest(animal.level(),
+            this.animal.getBoundingBox().inflate(8.0D, 4.0D, 8.0D), animal.position(), getDiet()::isFood);
     }
 
     @Override
@@ -2,11 +2,11 @@ package net.voidnull.autobreed.goals;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.animal.Animal;
-import net.minecraft.world.item.Items;
 import net.minecraft.world.phys.Vec3;
 import net.voidnull.autobreed.tracking.TrackedHayBale;
 import net.voidnull.autobreed.AutoBreedConfig;
 import net.voidnull.autobreed.AutoBreed;
+import net.voidnull.autobreed.tracking.TargetWakeups;
 
 public class TargetHayBlockGoal extends AbstractTargetGoal<BlockPos> {
     private final TrackedHayBale hayTracker;
@@ -24,22 +24,41 @@ public class TargetHayBlockGoal extends AbstractTargetGoal<BlockPos> {
         return hayTracker;
     }
 
+    @Override
+    protected TargetWakeups.Kind getWakeKind() {
+        return TargetWakeups.Kind.HAY_BALE;
+    }
+
     @Override
     protected boolean isValidTarget(BlockPos target) {
         boolean matches = hayTracker.matches(animal.level().getBlockState(target));
-        boolean canEat = hayTracker.canBeEaten(target);
+        boolean canEat = hayTracker.canBeEaten(animal.level().dimension(), target);
         return matches && canEat;
     }
 
     @Override
     protected BlockPos findTarget() {
         BlockPos animalPos = animal.blockPosition();
+        // Bales claimed by other animals are skipped so a herd spreads over the hay
         BlockPos target = AutoBreed.getBlockTracker().getBlockCache()
-            .findNearest(animalPos, AutoBreedConfig.SEARCH_RADIUS.get(), hayTracker);
+            .findNearest(animal.level(), animalPos,
+                AutoBreedConfig.SEARCH_RADIUS.get(), AutoBreedConfig.SEARCH_VERTICAL_RADIUS.get(), hayTracker, true,
+                claimedByOthers());
             
         return target;
     }
 
+    @Override
+    protected void claimTarget(BlockPos target) {
+        AutoBreed.getBlockTracker().getReservations()
+            .claim(animal.level(), target.asLong(), animal.getId(), AutoBreedConfig.TARGET_CLAIM_TICKS.get());
+    }
+
+    @Override
+    protected void releaseTarget(BlockPos target) {
+        AutoBreed.getBlockTracker().getReservations().release(animal.level(), target.asLong(), animal.getId());
+    }
+
     @Override
     protected void updatePathToTarget() {
         if (targetEntity != null) {
@@ -64,7 +83,7 @@ public class TargetHayBlockGoal extends AbstractTargetGoal<BlockPos> {
     }
 
     @Override
-    public boolean canUse() {
+    protected boolean checkCanUse() {
         if(animal.isInLove()) {
             return false;
         }
@@ -77,14 +96,14 @@ public class TargetHayBlockGoal extends AbstractTargetGoal<BlockPos> {
         if(animal.getAge() != 0) {
             return false;
         }
-        if(!animal.isFood(Items.WHEAT.getDefaultInstance())) {
+        if(!getDiet().eatsHay()) {
             return false;
         }
         if(animal.isBaby()) {
             return false;
         }
 
-        boolean canUse = super.canUse();
+        boolean canUse = super.checkCanUse();
         return canUse;
     }
 
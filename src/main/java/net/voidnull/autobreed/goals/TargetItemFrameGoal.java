@@ -3,6 +3,8 @@ package net.voidnull.autobreed.goals;
 import net.minecraft.world.entity.animal.Animal;
 import net.minecraft.world.entity.decoration.ItemFrame;
 import net.minecraft.world.entity.ai.goal.Goal;
+import net.voidnull.autobreed.AutoBreed;
+import net.voidnull.autobreed.AutoBreedConfig;
 import java.util.EnumSet;
 
 public class TargetItemFrameGoal extends AbstractEntityTargetGoal<ItemFrame> {
@@ -17,13 +19,20 @@ public class TargetItemFrameGoal extends AbstractEntityTargetGoal<ItemFrame> {
     }
 
     @Override
-    protected Class<ItemFrame> getTargetClass() {
-        return ItemFrame.class;
+    protected boolean isValidFoodSource(ItemFrame entity) {
+        return getDiet().isFood(entity.getItem());
     }
 
     @Override
-    protected boolean isValidFoodSource(ItemFrame entity) {
-        return animal.isFood(entity.getItem());
+    protected ItemFrame findTarget() {
+        // Frames holding food are indexed by chunk and item, so other entities are never visited
+        // Same reach as the entity scan it replaced: the animal's bounding box grown by the search radii
+        return AutoBreed.getBlockTracker().getFoodFrameIndex().findNearest(animal.level(),
+            animal.getBoundingBox().inflate(
+                AutoBreedConfig.SEARCH_RADIUS.get(),
+                AutoBreedConfig.SEARCH_VERTICAL_RADIUS.get(),
+                AutoBreedConfig.SEARCH_RADIUS.get()),
+            animal.position(), getDiet()::isFood);
     }
 
     @Override
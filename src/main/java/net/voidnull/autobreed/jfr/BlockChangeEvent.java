@@ -0,0 +1,44 @@
+package net.voidnull.autobreed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A journaled block change being applied to the block index at the end of a tick
+ */
+@Name("autobreed.BlockChange")
+@Label("Block Change")
+@Category({"AutoBreed", "Block Index"})
+@Description("A placed, broken or changed block being applied to the block index")
+@Enabled(false)
+@StackTrace(false)
+public class BlockChangeEvent extends Event {
+    public static final String UPDATED = "updated";
+    public static final String REMOVED = "removed";
+    public static final String ADDED = "added";
+    public static final String IGNORED = "ignored";
+
+    @Label("Dimension")
+    public String dimension;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Z")
+    public int z;
+
+    @Label("Block")
+    public String block;
+
+    @Label("Result")
+    @Description("updated, removed, added or ignored for blocks no tracker cares about")
+    public String result;
+}
@@ -0,0 +1,48 @@
+package net.voidnull.autobreed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A chunk joining the block index on load, and how its tracked blocks were found
+ */
+@Name("autobreed.ChunkLoad")
+@Label("Chunk Load")
+@Category({"AutoBreed", "Block Index"})
+@Description("A loaded chunk being added to the block index")
+@Enabled(false)
+@StackTrace(false)
+public class ChunkLoadEvent extends Event {
+    public static final String INDEXED = "already_indexed";
+    public static final String EMPTY = "empty";
+    public static final String RECENT_CHUNKS = "recent_chunks";
+    public static final String SNAPSHOT = "snapshot";
+    public static final String ASYNC = "async";
+    public static final String SCANNED = "scanned";
+
+    @Label("Dimension")
+    public String dimension;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Sections")
+    @Description("Sections whose palette may hold a tracked block")
+    public int sections;
+
+    @Label("Blocks")
+    @Description("Tracked blocks indexed for the chunk once the event ends; 0 while an async scan is pending")
+    public int blocks;
+
+    @Label("Outcome")
+    @Description("Where the chunk's blocks came from: already_indexed, empty, recent_chunks, snapshot, async or scanned")
+    public String outcome;
+}
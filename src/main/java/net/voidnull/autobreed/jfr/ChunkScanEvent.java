@@ -0,0 +1,35 @@
+package net.voidnull.autobreed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A sweep of a chunk's section palettes for tracked blocks, on the server thread or a scan worker
+ */
+@Name("autobreed.ChunkScan")
+@Label("Chunk Scan")
+@Category({"AutoBreed", "Block Index"})
+@Description("A chunk's sections being scanned for tracked blocks")
+@Enabled(false)
+@StackTrace(false)
+public class ChunkScanEvent extends Event {
+    @Label("Dimension")
+    public String dimension;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Sections")
+    public int sections;
+
+    @Label("Blocks Found")
+    public int blocks;
+}
@@ -0,0 +1,46 @@
+package net.voidnull.autobreed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An animal that reached its food deciding whether to eat it
+ */
+@Name("autobreed.ConsumeDecision")
+@Label("Consume Decision")
+@Category({"AutoBreed", "Goals"})
+@Description("An animal next to its target deciding whether to eat it")
+@Enabled(false)
+@StackTrace(false)
+public class ConsumeDecisionEvent extends Event {
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+    public static final String INVALID = "invalid";
+
+    @Label("Dimension")
+    public String dimension;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Z")
+    public int z;
+
+    @Label("Animal")
+    public String animal;
+
+    @Label("Goal")
+    public String goal;
+
+    @Label("Result")
+    @Description("hit if the animal ate, miss if it could not yet (breeding state, not adjacent), invalid if the target was gone")
+    public String result;
+}
@@ -0,0 +1,56 @@
+package net.voidnull.autobreed.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A search of the block index for the nearest tracked block, or for all of them in a radius
+ */
+@Name("autobreed.FoodSearch")
+@Label("Food Search")
+@Category({"AutoBreed", "Search"})
+@Description("A nearest-block or radius search of the block index")
+@Enabled(false)
+@StackTrace(false)
+public class FoodSearchEvent extends Event {
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+
+    @Label("Dimension")
+    public String dimension;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Z")
+    public int z;
+
+    @Label("Radius")
+    public int radius;
+
+    @Label("Block Type")
+    public String blockType;
+
+    @Label("Consumable Only")
+    public boolean consumableOnly;
+
+    @Label("Memoized")
+    @Description("Whether the search was answered from the tick's shared candidate list")
+    public boolean memoized;
+
+    @Label("Candidates")
+    @Description("Indexed blocks the search looked at")
+    public int candidates;
+
+    @Label("Result")
+    @Description("hit if a block was found, miss otherwise")
+    public String result;
+}
@@ -0,0 +1,217 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.voidnull.autobreed.AutoBreedConfig;
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs chunk scans on a bounded worker pool and hands the results back to the
+ * server thread. Each chunk has at most one live job, held in its
+ * {@link LevelIndex#pendingScans}; a job is published only if it is still the live
+ * job for its chunk when drained, so results for chunks that were unloaded or
+ * rescheduled are dropped. Jobs for chunks modified while the scan was running are
+ * rescanned from a fresh snapshot instead of being published. The pool's queue is
+ * bounded, so chunks loading faster than the workers keep up are scanned inline.
+ */
+class AsyncChunkScanner {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ChunkBasedCache cache;
+
+    // Finished jobs waiting for the server thread
+    private final Queue<ScanJob> completed = new ConcurrentLinkedQueue<>();
+
+    private ThreadPoolExecutor executor;
+    // Capacity of the executor's queue, fixed when the pool was created
+    private int queueSize;
+
+    static final class ScanJob {
+        final LevelIndex index;
+        final long chunkKey;
+        final LevelAccessor level;
+        final List<ChunkBasedCache.SectionSnapshot> sections;
+        volatile boolean cancelled;
+        volatile boolean dirty;
+        volatile List<ChunkBasedCache.FoundBlock> result;
+
+        ScanJob(LevelIndex index, long chunkKey, LevelAccessor level, List<ChunkBasedCache.SectionSnapshot> sections) {
+            this.index = index;
+            this.chunkKey = chunkKey;
+            this.level = level;
+            this.sections = sections;
+        }
+    }
+
+    AsyncChunkScanner(ChunkBasedCache cache) {
+        this.cache = cache;
+    }
+
+    boolean isEnabled() {
+        return AutoBreedConfig.ASYNC_SCAN_THREADS.get() > 0;
+    }
+
+    boolean hasCompleted() {
+        return !completed.isEmpty();
+    }
+
+    /**
+     * Queues a snapshot for scanning. Must run on the server thread.
+     * @return false if the pool refused the job and the caller should scan inline
+     */
+    boolean submit(LevelIndex index, long chunkKey, LevelAccessor level, List<ChunkBasedCache.SectionSnapshot> sections) {
+        ScanJob job = new ScanJob(index, chunkKey, level, sections);
+        ScanJob previous = index.pendingScans.put(chunkKey, job);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        try {
+            getExecutor().execute(() -> run(job));
+            return true;
+        } catch (RejectedExecutionException e) {
+            index.pendingScans.remove(chunkKey, job);
+            return false;
+        }
+    }
+
+    /**
+     * Scans a job on the calling thread and queues the result for {@link #drain}
+     */
+    void run(ScanJob job) {
+        // Skip the work entirely if the chunk went away while queued
+        if (job.cancelled) {
+            return;
+        }
+        try {
+            job.result = cache.scanSections(job.index.dimension, new ChunkPos(job.chunkKey), job.sections);
+            completed.add(job);
+        } catch (Exception e) {
+            LOGGER.error("Error scanning chunk {} off-thread: {}", new ChunkPos(job.chunkKey), e.getMessage(), e);
+            job.cancelled = true;
+            completed.add(job);  // Let the server thread release the pending slot
+        }
+    }
+
+    /**
+     * Publishes up to {@code budget} finished jobs. Must run on the server thread.
+     * @return the jobs whose chunk changed while they ran; hand each to {@link #rescan}
+     */
+    List<ScanJob> drain(int budget) {
+        List<ScanJob> stale = List.of();
+        int processed = 0;
+        ScanJob job;
+        while (processed < budget && (job = completed.poll()) != null) {
+            if (job.index.pendingScans.get(job.chunkKey) != job) {
+                continue;  // Unloaded or superseded, not worth a budget slot
+            }
+            job.index.pendingScans.remove(job.chunkKey);
+            if (job.cancelled) {
+                continue;
+            }
+            processed++;
+
+            if (job.dirty) {
+                // The chunk changed after the snapshot was taken, so its result is of no use
+                if (stale.isEmpty()) {
+                    stale = new ArrayList<>();
+                }
+                stale.add(job);
+                continue;
+            }
+
+            cache.publishScan(job.index, job.chunkKey, job.level, job.result);
+        }
+        return stale;
+    }
+
+    /**
+     * Scans a chunk returned by {@link #drain} again as it is now. Must run on the server thread.
+     */
+    void rescan(ScanJob job) {
+        ChunkAccess chunk = job.level.getChunk(
+            ChunkPos.getX(job.chunkKey), ChunkPos.getZ(job.chunkKey), ChunkStatus.FULL, false);
+        if (chunk != null) {
+            cache.onChunkLoad(chunk, job.level);
+        }
+    }
+
+    void markDirty(LevelIndex index, long chunkKey) {
+        if (index.pendingScans.isEmpty()) {
+            return;
+        }
+        ScanJob job = index.pendingScans.get(chunkKey);
+        if (job != null) {
+            job.dirty = true;
+        }
+    }
+
+    void cancel(LevelIndex index, long chunkKey) {
+        if (index.pendingScans.isEmpty()) {
+            return;
+        }
+        ScanJob job = index.pendingScans.remove(chunkKey);
+        if (job != null) {
+            job.cancelled = true;
+        }
+    }
+
+    void cancelAll(LevelIndex index) {
+        index.pendingScans.values().forEach(job -> job.cancelled = true);
+        index.pendingScans.clear();
+    }
+
+    synchronized void shutdown() {
+        completed.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor() {
+        int threads = AutoBreedConfig.ASYNC_SCAN_THREADS.get();
+        int configuredQueueSize = AutoBreedConfig.ASYNC_SCAN_QUEUE_SIZE.get();
+        if (executor != null && !executor.isShutdown() && queueSize != configuredQueueSize) {
+            // A queue cannot be resized, so let the old pool finish its jobs and start a new one
+            executor.shutdown();
+        }
+        if (executor == null || executor.isShutdown()) {
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, "AutoBreed-ChunkScan-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            };
+            // Bounded, so a burst of chunk loads falls back to inline scans instead of piling up section copies
+            queueSize = configuredQueueSize;
+            executor = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), factory);
+            executor.allowCoreThreadTimeOut(true);
+            LOGGER.info("Started async chunk scan pool with {} threads and room for {} queued chunks", threads, queueSize);
+        } else if (executor.getMaximumPoolSize() != threads) {
+            // Follow config reloads without restarting the pool
+            if (threads > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(threads);
+                executor.setCorePoolSize(threads);
+            } else {
+                executor.setCorePoolSize(threads);
+                executor.setMaximumPoolSize(threads);
+            }
+        }
+        return executor;
+    }
+}
@@ -1,16 +1,36 @@
 package net.voidnull.autobreed.tracking;
 
+import net.neoforged.bus.api.EventPriority;
 import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+import net.neoforged.neoforge.event.entity.EntityEvent;
+import net.neoforged.neoforge.event.entity.EntityJoinLevelEvent;
+import net.neoforged.neoforge.event.entity.EntityLeaveLevelEvent;
+import net.neoforged.neoforge.event.entity.player.AttackEntityEvent;
+import net.neoforged.neoforge.event.entity.player.BonemealEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
 import net.neoforged.neoforge.event.level.ChunkEvent;
 import net.neoforged.neoforge.event.level.LevelEvent;
 import net.neoforged.neoforge.event.level.BlockEvent;
+import net.neoforged.neoforge.event.level.block.CropGrowEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
 import java.util.*;
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.ai.goal.WrappedGoal;
+import net.minecraft.world.entity.animal.Animal;
+import net.minecraft.world.entity.decoration.ItemFrame;
+import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.world.level.block.state.BlockState;
+import net.voidnull.autobreed.goals.AbstractTargetGoal;
 
 /**
  * Unified event handler for all block tracking.
@@ -19,10 +39,29 @@ import net.minecraft.world.level.block.state.BlockState;
  */
 public class BlockTrackingHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(BlockTrackingHandler.class);
+    private static final PerformanceMetrics.Timer ENTITY_INDEX_TIMER = PerformanceMetrics.timer("entity_index");
+    private static final PerformanceMetrics.Timer TICK_END_TIMER = PerformanceMetrics.timer("tick_end");
     
     // The main cache that handles all block tracking
     private final ChunkBasedCache blockCache;
     
+    // Claims animals hold on the blocks they are heading for
+    private final TargetReservations reservations = new TargetReservations();
+    
+    // Idle goals waiting for food to appear near them
+    private final TargetWakeups wakeups = new TargetWakeups();
+    
+    // What each species eats, and the dropped food items indexed by chunk and item
+    private final DietProfiles dietProfiles = new DietProfiles();
+    private final ChunkEntityIndex<ItemEntity> foodItemIndex = new ChunkEntityIndex<>(ItemEntity::getItem, dietProfiles::isAnyFood);
+    
+    // Item frames holding food, and frames a player touched this tick that need a recheck
+    private final ChunkEntityIndex<ItemFrame> foodFrameIndex = new ChunkEntityIndex<>(ItemFrame::getItem, dietProfiles::isAnyFood);
+    private final Set<ItemFrame> framesToRecheck = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    // Periodic timing export, written off the server thread
+    private final MetricsExporter metricsExporter = new MetricsExporter();
+    
     // Keep references to our tracked blocks for easy access
     private final TrackedHayBale hayBaleTracker;
     private final Map<CropType, TrackedCrop> cropTrackers;
@@ -57,7 +96,7 @@ public class BlockTrackingHandler {
                 BuiltInRegistries.BLOCK.getKey(tracker.getBlock())));
         
         // Initialize the cache with all our trackers
-        blockCache = new ChunkBasedCache(allTrackers);
+        blockCache = new ChunkBasedCache(allTrackers, wakeups);
     }
     
     @SubscribeEvent
@@ -76,41 +115,192 @@ public class BlockTrackingHandler {
     @SubscribeEvent
     public void onChunkUnload(ChunkEvent.Unload event) {
         if (event.getLevel().isClientSide()) return;  // Server-side only
-        blockCache.onChunkUnload(event.getChunk().getPos());
+        blockCache.onChunkUnload(event.getLevel(), event.getChunk());
     }
 
     @SubscribeEvent
     public void onBlockPlace(BlockEvent.EntityPlaceEvent event) {
         if (event.getLevel().isClientSide()) return;  // Server-side only
-        blockCache.onBlockPlace(event.getPos(), event.getLevel(), event.getPlacedBlock());
+        blockCache.onBlockChanged(event.getPos(), event.getLevel());
     }
 
     @SubscribeEvent
     public void onBlockBreak(BlockEvent.BreakEvent event) {
         if (event.getLevel().isClientSide()) return;  // Server-side only
-        blockCache.onBlockBreak(event.getPos(), event.getLevel(), event.getState());
+        blockCache.onBlockChanged(event.getPos(), event.getLevel());
     }
 
     @SubscribeEvent
     public void onBlockChange(BlockEvent.NeighborNotifyEvent event) {
         if (event.getLevel().isClientSide()) return;  // Server-side only
-        
-        BlockState newState = event.getLevel().getBlockState(event.getPos());
-        // Only track changes if the block state actually changed
-        BlockState oldState = event.getState();
-        if (!newState.equals(oldState)) {
-            LOGGER.debug("Block changed at {} from {} to {}", 
-                event.getPos(), 
-                BuiltInRegistries.BLOCK.getKey(oldState.getBlock()),
-                BuiltInRegistries.BLOCK.getKey(newState.getBlock()));
-            blockCache.onBlockChanged(event.getPos(), event.getLevel(), newState);
+        // Fires for every block update (redstone, fluids, pistons), so reject untracked ones first.
+        // The event carries the block's current state, so no world lookup is needed.
+        if (!blockCache.isTracked(event.getState()) && !blockCache.isTrackedPosition(event.getLevel(), event.getPos())) {
+            return;
+        }
+        blockCache.onBlockChanged(event.getPos(), event.getLevel());
+    }
+
+    @SubscribeEvent
+    public void onCropGrow(CropGrowEvent.Post event) {
+        if (event.getLevel().isClientSide()) return;  // Server-side only
+        // Random tick growth updates clients only (flag 2), so no neighbour notification follows it
+        blockCache.onBlockChanged(event.getPos(), event.getLevel());
+    }
+
+    @SubscribeEvent
+    public void onBonemeal(BonemealEvent event) {
+        Level level = event.getLevel();
+        if (level.isClientSide() || !blockCache.isTrackedPosition(level, event.getPos())) return;
+        // Fires before the crop grows and growth sends no neighbour notification, but the journal
+        // reads the block again when it is applied at tick end
+        blockCache.onBlockChanged(event.getPos(), level);
+    }
+
+    // Lowest priority so entities whose join another mod cancels are never indexed
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onEntityJoin(EntityJoinLevelEvent event) {
+        if (event.getLevel().isClientSide()) return;  // Server-side only
+        long started = ENTITY_INDEX_TIMER.start();
+        try {
+            if (event.getEntity() instanceof ItemEntity item) {
+                foodItemIndex.update(item);
+                if (foodItemIndex.contains(item)) {
+                    wakeups.notify(event.getLevel(), item.blockPosition(), TargetWakeups.Kind.FOOD_ITEM, item.getItem());
+                }
+            } else if (event.getEntity() instanceof ItemFrame frame) {
+                foodFrameIndex.update(frame);
+            } else if (event.getEntity() instanceof Animal animal) {
+                // Profile new species up front; items they eat are refiled at tick end
+                dietProfiles.get(animal);
+            }
+        } finally {
+            ENTITY_INDEX_TIMER.stop(started);
+        }
+    }
+
+    @SubscribeEvent
+    public void onTagsUpdated(TagsUpdatedEvent event) {
+        if (event.getUpdateCause() != TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) return;
+        // Food tags may have changed, so every diet has to be probed again
+        dietProfiles.rebuild(ServerLifecycleHooks.getCurrentServer());
+    }
+
+    @SubscribeEvent
+    public void onEntityChangeChunk(EntityEvent.EnteringSection event) {
+        if (event.didChunkChange() && event.getEntity() instanceof ItemEntity item && !item.level().isClientSide()) {
+            long started = ENTITY_INDEX_TIMER.start();
+            try {
+                foodItemIndex.update(item);
+            } finally {
+                ENTITY_INDEX_TIMER.stop(started);
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onEntityInteract(PlayerInteractEvent.EntityInteract event) {
+        if (!event.getLevel().isClientSide() && event.getTarget() instanceof ItemFrame frame) {
+            // The event fires before the frame's item changes, so look again at tick end
+            framesToRecheck.add(frame);
         }
     }
 
+    @SubscribeEvent
+    public void onAttackEntity(AttackEntityEvent event) {
+        if (!event.getEntity().level().isClientSide() && event.getTarget() instanceof ItemFrame frame) {
+            framesToRecheck.add(frame);
+        }
+    }
+
+    private void reindexItems(MinecraftServer server) {
+        if (server == null) {
+            return;
+        }
+        for (ServerLevel level : server.getAllLevels()) {
+            for (Entity entity : level.getAllEntities()) {
+                if (entity instanceof ItemEntity item) {
+                    foodItemIndex.update(item);
+                } else if (entity instanceof ItemFrame frame) {
+                    foodFrameIndex.update(frame);
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onEntityLeave(EntityLeaveLevelEvent event) {
+        if (event.getLevel().isClientSide()) return;  // Server-side only
+        long started = ENTITY_INDEX_TIMER.start();
+        try {
+            if (event.getEntity() instanceof ItemEntity item) {
+                foodItemIndex.remove(item);
+            } else if (event.getEntity() instanceof ItemFrame frame) {
+                foodFrameIndex.remove(frame);
+                framesToRecheck.remove(frame);
+            } else if (event.getEntity() instanceof Animal animal) {
+                reservations.releaseAll(event.getLevel(), animal.getId());
+                // Drop any wake-up subscriptions so the registry does not keep the goals alive
+                for (WrappedGoal goal : animal.goalSelector.getAvailableGoals()) {
+                    if (goal.getGoal() instanceof AbstractTargetGoal<?> targetGoal) {
+                        targetGoal.onOwnerRemoved();
+                    }
+                }
+            }
+        } finally {
+            ENTITY_INDEX_TIMER.stop(started);
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerTick(ServerTickEvent.Post event) {
+        // Bring the index up to date with this tick's block changes, once per changed block
+        blockCache.applyPendingChanges(event.getServer());
+        // Safe point to publish chunk scans finished off-thread
+        blockCache.publishPendingScans();
+        long started = TICK_END_TIMER.start();
+        try {
+            // Items already lying around may be food for a newly seen or reloaded diet
+            if (dietProfiles.consumeFoodsChanged()) {
+                reindexItems(event.getServer());
+            }
+            // Memoized queries only live for the tick that built them
+            blockCache.clearQueryMemos();
+            if (!framesToRecheck.isEmpty()) {
+                framesToRecheck.forEach(foodFrameIndex::update);
+                framesToRecheck.clear();
+            }
+        } finally {
+            TICK_END_TIMER.stop(started);
+        }
+        if (PerformanceMetrics.tick()) {
+            metricsExporter.onSlotCompleted(event.getServer());
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        blockCache.shutdown();
+        metricsExporter.shutdown();
+        reservations.clear();
+        wakeups.clear();
+        foodItemIndex.clear();
+        foodFrameIndex.clear();
+        framesToRecheck.clear();
+        dietProfiles.clear();
+    }
+
     @SubscribeEvent
     public void onWorldUnload(LevelEvent.Unload event) {
         if (event.getLevel().isClientSide()) return;  // Server-side only
-        blockCache.clear();
+        // Only drop the partition of the level being unloaded
+        blockCache.clearLevel(event.getLevel());
+        if (event.getLevel() instanceof Level level) {
+            reservations.clearLevel(level);
+            wakeups.clearLevel(level);
+            foodItemIndex.clearLevel(level);
+            foodFrameIndex.clearLevel(level);
+        }
         // Log final stats before world unloads
         PerformanceMetrics.logStats();
     }
@@ -118,8 +308,11 @@ public class BlockTrackingHandler {
     @SubscribeEvent
     public void onWorldSave(LevelEvent.Save event) {
         if (event.getLevel().isClientSide()) return;  // Server-side only
+        // Attach fresh index snapshots to changed chunks before they are written
+        blockCache.onLevelSave(event.getLevel());
         // Log performance stats on world save
         PerformanceMetrics.logStats();
+        blockCache.logIndexStats();
     }
     
     // Helper methods to access trackers
@@ -134,4 +327,24 @@ public class BlockTrackingHandler {
     public ChunkBasedCache getBlockCache() {
         return blockCache;
     }
+    
+    public TargetReservations getReservations() {
+        return reservations;
+    }
+    
+    public TargetWakeups getWakeups() {
+        return wakeups;
+    }
+    
+    public DietProfiles getDietProfiles() {
+        return dietProfiles;
+    }
+    
+    public ChunkEntityIndex<ItemEntity> getFoodItemIndex() {
+        return foodItemIndex;
+    }
+    
+    public ChunkEntityIndex<ItemFrame> getFoodFrameIndex() {
+        return foodFrameIndex;
+    }
 } 
\ No newline at end of file
@@ -1,61 +1,127 @@
 package net.voidnull.autobreed.tracking;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
 import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.ServerLevelAccessor;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.voidnull.autobreed.AutoBreedAttachments;
+import net.voidnull.autobreed.AutoBreedConfig;
+import net.voidnull.autobreed.jfr.BlockChangeEvent;
+import net.voidnull.autobreed.jfr.ChunkLoadEvent;
+import net.voidnull.autobreed.jfr.ChunkScanEvent;
+import net.voidnull.autobreed.jfr.FoodSearchEvent;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.BitSet;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
 import com.mojang.logging.LogUtils;
 import org.slf4j.Logger;
 
 /**
- * A thread-safe, chunk-based caching system for tracking blocks.
+ * A chunk-based caching system for tracking blocks, partitioned per dimension.
  * Uses memory-efficient position storage and fast block type lookups.
- * Maintains stability across sessions while optimizing performance.
+ * The index is owned by the server thread; only chunk scans run off-thread, on snapshots.
  */
 public class ChunkBasedCache {
     private static final Logger LOGGER = LogUtils.getLogger();
     
-    // Map of chunk positions to maps of relative positions to tracked blocks
-    private final Map<ChunkPos, Map<ChunkRelativePos, TrackedBlock>> chunkMap = new ConcurrentHashMap<>();
+    /**
+     * Returned by packed queries when nothing was found. Lies outside any valid world position.
+     */
+    public static final long NO_BLOCK = Long.MIN_VALUE;
+    
+    // Searches wider than this are not memoized; their neighbourhoods are rarely shared
+    private static final int MEMO_MAX_RADIUS = 32;
+
+    // Timers and hit rates reported with the performance stats
+    private static final PerformanceMetrics.Timer CHUNK_SCAN_TIMER = PerformanceMetrics.timer("chunk_scan");
+    private static final PerformanceMetrics.Timer CHUNK_SNAPSHOT_SAVE_TIMER = PerformanceMetrics.timer("chunk_snapshot_save");
+    private static final PerformanceMetrics.Timer CHUNK_PUBLISH_TIMER = PerformanceMetrics.timer("chunk_publish");
+    private static final PerformanceMetrics.Timer CHUNK_UNLOAD_TIMER = PerformanceMetrics.timer("chunk_unload");
+    private static final PerformanceMetrics.Timer JOURNAL_APPLY_TIMER = PerformanceMetrics.timer("journal_apply");
+    private static final PerformanceMetrics.Timer RADIUS_SEARCH_TIMER = PerformanceMetrics.timer("radius_search");
+    private static final PerformanceMetrics.Timer FIND_NEAREST_TIMER = PerformanceMetrics.timer("find_nearest");
+    private static final PerformanceMetrics.Timer CACHE_CLEAR_TIMER = PerformanceMetrics.timer("cache_clear");
+    private static final PerformanceMetrics.HitRate CHUNK_SNAPSHOT_HITS = PerformanceMetrics.hitRate("chunk_snapshot");
+    private static final PerformanceMetrics.HitRate RECENT_CHUNKS_HITS = PerformanceMetrics.hitRate("recent_chunks");
+    private static final PerformanceMetrics.HitRate CHANGE_JOURNAL_HITS = PerformanceMetrics.hitRate("change_journal");
+    private static final PerformanceMetrics.HitRate QUERY_MEMO_HITS = PerformanceMetrics.hitRate("query_memo");
     
-    // Keep track of which chunks we've scanned
-    private final Set<ChunkPos> scannedChunks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // One index partition per dimension, so unloading one level leaves the others intact
+    private final Map<ResourceKey<Level>, LevelIndex> levels = new Reference2ObjectOpenHashMap<>();
     
     // Stable block identification
     private final Map<ResourceLocation, TrackedBlock> stableBlockToTracker = new ConcurrentHashMap<>();
     
-    // Performance optimized runtime lookups
-    private final Int2ObjectMap<TrackedBlock> runtimeBlockToTracker = new Int2ObjectOpenHashMap<>();
-    private final BitSet runtimeTrackedIds = new BitSet();
-    private final Object2IntMap<ResourceLocation> stableToRuntimeId = new Object2IntOpenHashMap<>();
+    // Identity-keyed block lookup, written once in the constructor and read-only afterwards
+    private final Map<Block, TrackedBlock> blockToTracker = new Reference2ObjectOpenHashMap<>();
+    
+    // Compact per-tracker type ids stored in the chunk indexes, ordered by block id
+    private final TrackedBlock[] trackersById;
+    private final Reference2ByteOpenHashMap<TrackedBlock> trackerIds = new Reference2ByteOpenHashMap<>();
+    
+    // Identifies the tracker set and its type id order, so saved chunk indexes from another set are ignored
+    private final int trackerLayout;
+    
+    // Precomputed predicate used against section palettes to skip sections without tracked blocks
+    private final Predicate<BlockState> isTrackedState = state -> blockToTracker.containsKey(state.getBlock());
+    
+    // Off-thread chunk scanning, publishing back into the level indexes once per tick
+    private final AsyncChunkScanner asyncScanner = new AsyncChunkScanner(this);
+    
+    // Told whenever a block becomes consumable, to wake idle animals nearby
+    private final TargetWakeups wakeups;
+    
+    /**
+     * Block states of one section captured for scanning
+     */
+    record SectionSnapshot(int sectionY, PalettedContainer<BlockState> states) {}
+    
+    /**
+     * A tracked block found by a scan, not yet published to the index
+     */
+    record FoundBlock(BlockPos pos, BlockState state, TrackedBlock tracker) {}
     
-    public ChunkBasedCache(Set<TrackedBlock> trackedBlockTypes) {
+    public ChunkBasedCache(Set<TrackedBlock> trackedBlockTypes, TargetWakeups wakeups) {
+        this.wakeups = wakeups;
         LOGGER.info("==========================================");
         LOGGER.info("Initializing ChunkBasedCache");
         LOGGER.info("Number of block types to track: {}", trackedBlockTypes.size());
         
-        // Initialize both stable and runtime lookups
-        for (TrackedBlock tracker : trackedBlockTypes) {
+        // Order trackers by block id so type ids do not depend on set iteration order
+        List<TrackedBlock> ordered = new ArrayList<>(trackedBlockTypes);
+        ordered.sort(Comparator.comparing(tracker -> BuiltInRegistries.BLOCK.getKey(tracker.getBlock()).toString()));
+        trackersById = ordered.toArray(new TrackedBlock[0]);
+        trackerIds.defaultReturnValue((byte) -1);
+        trackerLayout = ordered.stream()
+            .map(tracker -> BuiltInRegistries.BLOCK.getKey(tracker.getBlock()).toString())
+            .toList()
+            .hashCode();
+        
+        for (TrackedBlock tracker : trackersById) {
             Block block = tracker.getBlock();
             ResourceLocation blockId = BuiltInRegistries.BLOCK.getKey(block);
             
-            // Store stable mapping first
             stableBlockToTracker.put(blockId, tracker);
+            blockToTracker.put(block, tracker);
+            trackerIds.put(tracker, (byte) trackerIds.size());
             
-            // Runtime mappings will be initialized on first use in getTracker()
-            // This ensures blocks are fully initialized when we get their runtime IDs
             LOGGER.info("Registered tracker for {}:", blockId);
             LOGGER.info("  - Block Class: {}", block.getClass().getSimpleName());
             LOGGER.info("  - Tracker Class: {}", tracker.getClass().getSimpleName());
@@ -68,104 +134,162 @@ public class ChunkBasedCache {
     }
     
     /**
-     * Get the appropriate tracker for a block state, using fast runtime lookup
+     * Get the appropriate tracker for a block state, or null if the block is not tracked
      */
-    private TrackedBlock getTracker(BlockState state) {
-        int runtimeId = Block.getId(state);
-        ResourceLocation blockId = BuiltInRegistries.BLOCK.getKey(state.getBlock());
-        
-        // Log runtime ID lookup
-        if (blockId.getPath().contains("hay")) {
-            LOGGER.info("Getting tracker for hay block:");
-            LOGGER.info("  - Runtime ID: {}", runtimeId);
-            LOGGER.info("  - Block State: {}", state);
-            LOGGER.info("  - Block ID: {}", blockId);
-            LOGGER.info("  - Runtime tracker exists: {}", runtimeBlockToTracker.containsKey(runtimeId));
-            LOGGER.info("  - Stable tracker exists: {}", stableBlockToTracker.containsKey(blockId));
-            LOGGER.info("  - Runtime IDs tracked: {}", runtimeTrackedIds);
-            LOGGER.info("  - Runtime trackers: {}", runtimeBlockToTracker);
-            LOGGER.info("  - Stable trackers: {}", stableBlockToTracker);
+    TrackedBlock getTracker(BlockState state) {
+        return blockToTracker.get(state.getBlock());
+    }
+    
+    /**
+     * Get the compact type id of a tracker, or -1 if it is not registered with this cache
+     */
+    byte getTypeId(TrackedBlock tracker) {
+        return trackerIds.getByte(tracker);
+    }
+    
+    /**
+     * Get the tracker for a compact type id
+     */
+    TrackedBlock getTrackerById(byte typeId) {
+        return trackersById[typeId];
+    }
+    
+    /**
+     * Returns true if the given state belongs to any tracked block type
+     */
+    public boolean isTracked(BlockState state) {
+        return isTrackedState.test(state);
+    }
+    
+    /**
+     * Resolves the dimension of a level, or null for levels that are not tied to one
+     */
+    private static ResourceKey<Level> dimensionOf(LevelAccessor level) {
+        if (level instanceof Level realLevel) {
+            return realLevel.dimension();
         }
-        
-        TrackedBlock tracker = runtimeBlockToTracker.get(runtimeId);
-        
-        if (tracker == null) {
-            // Try to get tracker from stable ID
-            ResourceLocation stableId = BuiltInRegistries.BLOCK.getKey(state.getBlock());
-            tracker = stableBlockToTracker.get(stableId);
-            if (tracker != null) {
-                // Update runtime mappings
-                runtimeBlockToTracker.put(runtimeId, tracker);
-                runtimeTrackedIds.set(runtimeId);
-                stableToRuntimeId.put(stableId, runtimeId);
-                if (blockId.getPath().contains("hay")) {
-                    LOGGER.info("Initialized runtime mapping for hay block:");
-                    LOGGER.info("  - Runtime ID: {}", runtimeId);
-                    LOGGER.info("  - Block ID: {}", blockId);
-                    LOGGER.info("  - Tracker: {}", tracker.getClass().getSimpleName());
-                    LOGGER.info("  - Runtime IDs tracked: {}", runtimeTrackedIds);
-                    LOGGER.info("  - Runtime trackers: {}", runtimeBlockToTracker);
-                }
-            }
+        if (level instanceof ServerLevelAccessor serverLevel) {
+            return serverLevel.getLevel().dimension();
         }
-        
-        return tracker;
+        return null;
     }
     
     /**
-     * Called when a chunk is loaded. Scans the chunk for tracked blocks.
+     * Get the index partition of a level, creating it on demand
+     */
+    private LevelIndex getOrCreateIndex(LevelAccessor level) {
+        ResourceKey<Level> dimension = dimensionOf(level);
+        if (dimension == null) {
+            return null;
+        }
+        return levels.computeIfAbsent(dimension, LevelIndex::new);
+    }
+    
+    /**
+     * Get the index partition of a level, or null if nothing is indexed there yet
+     */
+    private LevelIndex getIndex(LevelAccessor level) {
+        ResourceKey<Level> dimension = dimensionOf(level);
+        return dimension == null ? null : levels.get(dimension);
+    }
+    
+    /**
+     * Called when a chunk is loaded. Reinstates the chunk's index from the recently unloaded
+     * cache or the snapshot saved with the chunk if either is still valid, otherwise scans the
+     * chunk for tracked blocks, either inline or on the async scan pool depending on configuration.
      */
     public void onChunkLoad(ChunkAccess chunk, LevelAccessor level) {
-        PerformanceMetrics.startTimer("chunk_scan");
+        long started = CHUNK_SCAN_TIMER.start();
+        ChunkLoadEvent event = new ChunkLoadEvent();
+        event.begin();
+        String outcome = ChunkLoadEvent.INDEXED;
+        int sectionCount = 0;
+        LevelIndex index = null;
         try {
+            index = getOrCreateIndex(level);
+            if (index == null) {
+                return;
+            }
             ChunkPos chunkPos = chunk.getPos();
-            if (scannedChunks.contains(chunkPos)) {
+            long chunkKey = chunkPos.toLong();
+            if (index.scannedChunks.contains(chunkKey)) {
                 return;
             }
-        
             
-            Map<ChunkRelativePos, TrackedBlock> discoveredBlocks = scanChunk(chunk, level);
+            List<SectionSnapshot> sections = captureTrackedSections(chunk);
+            sectionCount = sections.size();
+            RecentChunkCache.Entry parked = index.recentChunks.take(chunkKey);
+            if (sections.isEmpty()) {
+                // No palette holds a tracked block, so there is nothing to hand off
+                if (parked != null) {
+                    evictParked(index, chunkKey, parked);
+                }
+                asyncScanner.cancel(index, chunkKey);
+                publishScan(index, chunkKey, level, List.of());
+                outcome = ChunkLoadEvent.EMPTY;
+                return;
+            }
             
-            if (!discoveredBlocks.isEmpty()) {
-                // Log summary of discovered blocks by type
-                Map<ResourceLocation, Integer> blockCounts = new HashMap<>();
-                discoveredBlocks.forEach((pos, tracker) -> {
-                    ResourceLocation blockId = BuiltInRegistries.BLOCK.getKey(tracker.getBlock());
-                    blockCounts.merge(blockId, 1, Integer::sum);
-                });
-                
-                blockCounts.forEach((blockId, count) -> {
-                    if (blockId.getPath().contains("hay")) {
-                        LOGGER.info("Found {} hay bales in chunk {}", count, chunkPos);
-                    } else if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Found {} {} in chunk {}", count, blockId, chunkPos);
-                    }
-                });
-            } else if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("No tracked blocks found in chunk {}", chunkPos);
+            // Fingerprints walk every cell of the sections, so only take them when there is an index to check
+            SectionFingerprints fingerprints = parked != null || hasSavedSnapshot(chunk)
+                ? SectionFingerprints.of(sections, isTrackedState) : null;
+            if (reinstateParked(index, chunkKey, parked, fingerprints)) {
+                outcome = ChunkLoadEvent.RECENT_CHUNKS;
+                return;
+            }
+            if (restoreSnapshot(index, chunkKey, chunk, fingerprints)) {
+                outcome = ChunkLoadEvent.SNAPSHOT;
+                return;
             }
             
-            chunkMap.put(chunkPos, new ConcurrentHashMap<>(discoveredBlocks));
-            scannedChunks.add(chunkPos);
+            if (asyncScanner.isEnabled()) {
+                // Scanned off-thread, so the live block states must not be shared
+                List<SectionSnapshot> copies = new ArrayList<>(sections.size());
+                for (SectionSnapshot section : sections) {
+                    copies.add(new SectionSnapshot(section.sectionY(), section.states().copy()));
+                }
+                if (asyncScanner.submit(index, chunkKey, level, copies)) {
+                    outcome = ChunkLoadEvent.ASYNC;
+                    return;
+                }
+            }
+            
+            publishScan(index, chunkKey, level, scanSections(index.dimension, chunkPos, sections));
+            outcome = ChunkLoadEvent.SCANNED;
         } finally {
-            PerformanceMetrics.stopTimer("chunk_scan");
+            CHUNK_SCAN_TIMER.stop(started);
+            if (index != null && event.shouldCommit()) {
+                ChunkPos chunkPos = chunk.getPos();
+                ChunkBlockIndex blocks = index.chunks.get(chunkPos.toLong());
+                event.dimension = index.dimension.location().toString();
+                event.chunkX = chunkPos.x;
+                event.chunkZ = chunkPos.z;
+                event.sections = sectionCount;
+                event.blocks = blocks == null ? 0 : blocks.size();
+                event.outcome = outcome;
+                event.commit();
+            }
         }
     }
     
     /**
-     * Scans a chunk for tracked blocks and returns a map of their positions to trackers.
+     * Collects the sections of a chunk whose palette may hold a tracked block, bottom to top.
+     * The live block states are captured; copy them before handing them to another thread.
      */
-    private Map<ChunkRelativePos, TrackedBlock> scanChunk(ChunkAccess chunk, LevelAccessor level) {
-        Map<ChunkRelativePos, TrackedBlock> blocksInChunk = new HashMap<>();
+    private List<SectionSnapshot> captureTrackedSections(ChunkAccess chunk) {
+        List<SectionSnapshot> snapshots = new ArrayList<>();
         ChunkPos chunkPos = chunk.getPos();
         
         // Get chunk sections
         LevelChunkSection[] sections = chunk.getSections();
         int minSection = chunk.getMinSection();
         
-        // Scan each section
         for (int sectionY = 0; sectionY < sections.length; sectionY++) {
             LevelChunkSection section = sections[sectionY];
+            if (!ChunkRelativePos.isPackableSection(sectionY + minSection)) {
+                // Taller datapack dimensions reach past the heights the index can store
+                continue;
+            }
             if (section == null || section.hasOnlyAir()) {
                 if (LOGGER.isTraceEnabled()) {
                     LOGGER.trace("Skipping empty section {} in chunk {}", sectionY, chunkPos);
@@ -173,306 +297,982 @@ public class ChunkBasedCache {
                 continue;
             }
             
-            scanChunkSection(section, sectionY + minSection, chunkPos, level, blocksInChunk);
+            // Check the section palette before touching any block; a palette without
+            // a tracked state means no cell in the section can hold one
+            if (!section.maybeHas(isTrackedState)) {
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace("Skipping section {} in chunk {} (no tracked blocks in palette)", sectionY, chunkPos);
+                }
+                continue;
+            }
+            
+            snapshots.add(new SectionSnapshot(sectionY + minSection, section.getStates()));
         }
         
-        return blocksInChunk;
+        return snapshots;
     }
     
     /**
-     * Scans a single chunk section for tracked blocks.
+     * Scans captured sections for tracked blocks. Safe to call off the server thread:
+     * it only reads the snapshots and the immutable tracker lookup.
      */
-    private void scanChunkSection(
-            LevelChunkSection section,
-            int sectionY,
-            ChunkPos chunkPos,
-            LevelAccessor level,
-            Map<ChunkRelativePos, TrackedBlock> blocksInChunk) {
-        int yOffset = sectionY << 4;  // Multiply by 16
+    List<FoundBlock> scanSections(ResourceKey<Level> dimension, ChunkPos chunkPos, List<SectionSnapshot> sections) {
+        ChunkScanEvent event = new ChunkScanEvent();
+        event.begin();
+        List<FoundBlock> found = new ArrayList<>();
+        int minX = chunkPos.getMinBlockX();
+        int minZ = chunkPos.getMinBlockZ();
         
-        // Log section scanning at trace level
-        if (LOGGER.isTraceEnabled()) {
-            LOGGER.trace("Scanning section at Y={} in chunk {}", sectionY, chunkPos);
+        for (SectionSnapshot section : sections) {
+            if (!ChunkRelativePos.isPackableSection(section.sectionY())) {
+                continue;
+            }
+            int yOffset = section.sectionY() << 4;  // Multiply by 16
+            
+            // Sweep the packed palette indices and only decode tracked cells
+            SectionScanner.scan(section.states(), this::getTracker, (index, state, tracker) ->
+                found.add(new FoundBlock(
+                    new BlockPos(
+                        minX + (index & 0xF),
+                        yOffset + (index >> 8),
+                        minZ + ((index >> 4) & 0xF)
+                    ),
+                    state,
+                    tracker
+                )));
         }
         
-        // Scan the section
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                for (int y = 0; y < 16; y++) {
-                    BlockState state = section.getBlockState(x, y, z);
-                    int runtimeId = Block.getId(state);
-                    ResourceLocation blockId = BuiltInRegistries.BLOCK.getKey(state.getBlock());
-                    
-                    // Check if this might be a block we care about
-                    if (blockId.getPath().contains("hay") || stableBlockToTracker.containsKey(blockId)) {
-                        // Initialize the tracker if needed
-                        TrackedBlock tracker = getTracker(state);
-                        if (tracker != null) {
-                            processBlockInSection(
-                                state,
-                                new BlockPos(
-                                    chunkPos.getMinBlockX() + x,
-                                    yOffset + y,
-                                    chunkPos.getMinBlockZ() + z
-                                ),
-                                level,
-                                blocksInChunk
-                            );
-                        }
-                        continue;
-                    }
-                    
-                    // For other blocks, use fast runtime ID check
-                    if (!runtimeTrackedIds.get(runtimeId)) {
-                        continue;
-                    }
-                    
-                    processBlockInSection(
-                        state,
-                        new BlockPos(
-                            chunkPos.getMinBlockX() + x,
-                            yOffset + y,
-                            chunkPos.getMinBlockZ() + z
-                        ),
-                        level,
-                        blocksInChunk
-                    );
+        if (event.shouldCommit()) {
+            event.dimension = dimension.location().toString();
+            event.chunkX = chunkPos.x;
+            event.chunkZ = chunkPos.z;
+            event.sections = sections.size();
+            event.blocks = found.size();
+            event.commit();
+        }
+        return found;
+    }
+    
+    /**
+     * Publishes scan results into the index. Must run on the server thread.
+     */
+    void publishScan(LevelIndex index, long chunkKey, LevelAccessor level, List<FoundBlock> found) {
+        ChunkBlockIndex discoveredBlocks = new ChunkBlockIndex(trackersById.length);
+        for (FoundBlock block : found) {
+            processBlockInSection(block.tracker(), block.state(), block.pos(), index.dimension, discoveredBlocks);
+        }
+        
+        if (!discoveredBlocks.isEmpty() && LOGGER.isDebugEnabled()) {
+            // Log summary of discovered blocks by type
+            for (byte typeId = 0; typeId < trackersById.length; typeId++) {
+                if (discoveredBlocks.count(typeId) > 0) {
+                    LOGGER.debug("Found {} {} in chunk {} of {}", discoveredBlocks.count(typeId),
+                        trackersById[typeId].getBlock(), new ChunkPos(chunkKey), index.dimension.location());
                 }
             }
         }
+        installChunk(index, chunkKey, discoveredBlocks);
+        // A fresh scan has no snapshot yet
+        index.unsavedChunks.add(chunkKey);
+    }
+    
+    private static boolean hasSavedSnapshot(ChunkAccess chunk) {
+        return AutoBreedConfig.PERSIST_CHUNK_INDEX.get() && chunk.hasData(AutoBreedAttachments.CHUNK_INDEX.get());
     }
     
     /**
-     * Processes a single block during chunk scanning.
+     * Restores a chunk's index from the snapshot saved with it, if the snapshot still matches
+     * the chunk's blocks. Must run on the server thread.
+     * @param fingerprints the chunk's current section fingerprints; only read if it has a snapshot
+     * @return true if the chunk was restored and needs no scan
      */
-    private void processBlockInSection(
-            BlockState state,
-            BlockPos worldPos,
-            LevelAccessor level,
-            Map<ChunkRelativePos, TrackedBlock> blocksInChunk) {
-        int runtimeId = Block.getId(state);
-        ResourceLocation blockId = BuiltInRegistries.BLOCK.getKey(state.getBlock());
+    private boolean restoreSnapshot(LevelIndex index, long chunkKey, ChunkAccess chunk, SectionFingerprints fingerprints) {
+        if (!hasSavedSnapshot(chunk)) {
+            return false;
+        }
+        ChunkIndexSnapshot snapshot = chunk.getData(AutoBreedAttachments.CHUNK_INDEX.get());
+        boolean valid = snapshot.matches(trackerLayout, trackersById.length, fingerprints);
+        CHUNK_SNAPSHOT_HITS.record(valid);
+        if (!valid) {
+            LOGGER.debug("Saved index of chunk {} is stale, rescanning", chunk.getPos());
+            return false;
+        }
         
-        TrackedBlock tracker = getTracker(state);
-        if (tracker == null) {
-            if (blockId.getPath().contains("hay")) {
-                LOGGER.warn("Failed to get tracker for hay block at {}", worldPos);
-                LOGGER.warn("  - Runtime ID: {}", runtimeId);
-                LOGGER.warn("  - Block State: {}", state);
-                LOGGER.warn("  - Block ID: {}", blockId);
+        int chunkX = ChunkPos.getX(chunkKey);
+        int chunkZ = ChunkPos.getZ(chunkKey);
+        ChunkBlockIndex restoredBlocks = new ChunkBlockIndex(trackersById.length);
+        for (int i = 0; i < snapshot.size(); i++) {
+            int packedPos = snapshot.packedAt(i);
+            byte typeId = snapshot.typeAt(i);
+            TrackedBlock tracker = trackersById[typeId];
+            BlockPos worldPos = ChunkRelativePos.toBlockPos(packedPos, chunkX, chunkZ);
+            if (tracker.onRestored(index.dimension, worldPos, snapshot.stateAt(i))) {
+                restoredBlocks.put(packedPos, typeId, tracker.isConsumable(index.dimension, worldPos));
             }
-            return;
         }
-        
-        if (!tracker.matches(state)) {
-            if (blockId.getPath().contains("hay")) {
-                LOGGER.warn("Hay block failed matches() check at {}", worldPos);
+        asyncScanner.cancel(index, chunkKey);
+        installChunk(index, chunkKey, restoredBlocks);
+        return true;
+    }
+    
+    /**
+     * Reinstates a chunk's index parked when it last unloaded, if the chunk's blocks are unchanged.
+     * A stale entry is evicted. Must run on the server thread.
+     * @param fingerprints the chunk's current section fingerprints; only read if an entry was parked
+     * @return true if the chunk was reinstated and needs no scan
+     */
+    private boolean reinstateParked(LevelIndex index, long chunkKey, RecentChunkCache.Entry parked, SectionFingerprints fingerprints) {
+        boolean valid = parked != null && parked.sections().matches(fingerprints);
+        RECENT_CHUNKS_HITS.record(valid);
+        if (!valid) {
+            if (parked != null) {
+                evictParked(index, chunkKey, parked);
             }
+            return false;
+        }
+        // Trackers kept their state for the parked blocks, so the index can be used as is
+        asyncScanner.cancel(index, chunkKey);
+        installChunk(index, chunkKey, parked.blocks() == null ? new ChunkBlockIndex(trackersById.length) : parked.blocks());
+        return true;
+    }
+    
+    /**
+     * Drops the tracker state of a parked chunk that will not be reinstated
+     */
+    private void evictParked(LevelIndex index, long chunkKey, RecentChunkCache.Entry parked) {
+        if (parked.blocks() != null) {
+            notifyChunkRemoved(index.dimension, ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey), parked.blocks());
+        }
+    }
+    
+    /**
+     * Attaches a snapshot of a chunk's index to the chunk if the index changed since the last one,
+     * or the chunk's blocks no longer match it. Must run on the server thread.
+     * @param fingerprints the chunk's current section fingerprints
+     */
+    private void saveSnapshot(LevelIndex index, long chunkKey, ChunkAccess chunk, SectionFingerprints fingerprints) {
+        boolean changed = index.unsavedChunks.remove(chunkKey);
+        // A chunk still waiting for its scan has nothing complete to save
+        if (!index.scannedChunks.contains(chunkKey)) {
             return;
         }
         
-        if (!tracker.onDiscovered(worldPos, level, state)) {
-            if (blockId.getPath().contains("hay")) {
-                LOGGER.warn("Hay block failed discovery check at {}", worldPos);
+        boolean hasSnapshot = chunk.hasData(AutoBreedAttachments.CHUNK_INDEX.get());
+        if (fingerprints.isEmpty()) {
+            // Loading finds nothing to scan anyway, so a snapshot would only take space
+            if (hasSnapshot) {
+                chunk.removeData(AutoBreedAttachments.CHUNK_INDEX.get());
+                chunk.setUnsaved(true);
             }
             return;
         }
+        if (!changed && hasSnapshot
+                && chunk.getData(AutoBreedAttachments.CHUNK_INDEX.get()).matches(trackerLayout, trackersById.length, fingerprints)) {
+            return;
+        }
         
-        ChunkRelativePos relPos = ChunkRelativePos.fromBlockPos(worldPos);
-        blocksInChunk.put(relPos, tracker);
-        if (blockId.getPath().contains("hay")) {
-            LOGGER.info("Successfully discovered hay bale at {}", worldPos);
-        } else if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Discovered {} at {}", blockId, worldPos);
+        ChunkBlockIndex blocksInChunk = index.chunks.get(chunkKey);
+        int size = blocksInChunk == null ? 0 : blocksInChunk.size();
+        int[] positions = new int[size];
+        byte[] types = new byte[size];
+        int[] states = new int[size];
+        int n = 0;
+        int chunkX = ChunkPos.getX(chunkKey);
+        int chunkZ = ChunkPos.getZ(chunkKey);
+        for (byte typeId = 0; typeId < trackersById.length && blocksInChunk != null; typeId++) {
+            ChunkBlockIndex.Bucket bucket = blocksInChunk.bucket(typeId, false);
+            for (int i = 0; bucket != null && i < bucket.count(); i++) {
+                int packedPos = bucket.packedAt(i);
+                positions[n] = packedPos;
+                types[n] = typeId;
+                states[n] = trackersById[typeId].getSavedState(index.dimension, ChunkRelativePos.toBlockPos(packedPos, chunkX, chunkZ));
+                n++;
+            }
         }
+        chunk.setData(AutoBreedAttachments.CHUNK_INDEX.get(), ChunkIndexSnapshot.of(trackerLayout, fingerprints, positions, types, states));
+        // Attachments are written with the chunk, so make sure it is written
+        chunk.setUnsaved(true);
     }
     
     /**
-     * Called when a chunk is unloaded
+     * Attaches snapshots to every loaded chunk of a level whose index changed since its last one.
+     * Called when the level saves.
      */
-    public void onChunkUnload(ChunkPos chunkPos) {
-        PerformanceMetrics.startTimer("chunk_unload");
+    public void onLevelSave(LevelAccessor level) {
+        LevelIndex index = getIndex(level);
+        if (index == null || !(level instanceof ServerLevel serverLevel) || !AutoBreedConfig.PERSIST_CHUNK_INDEX.get()) {
+            return;
+        }
+        // Autosaves run mid-tick, so catch the index up with the journal first; the fingerprints
+        // come from the live chunk and would otherwise vouch for an index missing these changes
+        applyPendingChanges(index, serverLevel);
+        if (index.unsavedChunks.isEmpty()) {
+            return;
+        }
+        long started = CHUNK_SNAPSHOT_SAVE_TIMER.start();
         try {
-            // Get the blocks in the chunk before removing
-            Map<ChunkRelativePos, TrackedBlock> blocksInChunk = chunkMap.remove(chunkPos);
-            
-            if (blocksInChunk != null && !blocksInChunk.isEmpty()) {
-                LOGGER.debug("Unloading chunk {} with {} tracked blocks", chunkPos, blocksInChunk.size());
-                
-                // Notify trackers about all blocks being unloaded
-                blocksInChunk.forEach((relPos, tracker) -> {
-                    try {
-                        BlockPos worldPos = relPos.toBlockPos(chunkPos);
-                        tracker.onRemoved(worldPos, null);  // level is null since chunk is unloaded
-                    } catch (Exception e) {
-                        LOGGER.error("Error notifying tracker about block removal during chunk unload at {}: {}", 
-                            relPos.toBlockPos(chunkPos), e.getMessage());
-                    }
-                });
-                
-                // Clear the map to help GC
-                blocksInChunk.clear();
-            }
-            
-            scannedChunks.remove(chunkPos);
-            
-            // Periodically clean up runtime mappings (every 100 chunk unloads)
-            if (Math.random() < 0.01) {  // 1% chance to trigger cleanup
-                cleanupRuntimeMappings();
+            long[] chunkKeys = index.unsavedChunks.toLongArray();
+            for (long chunkKey : chunkKeys) {
+                LevelChunk chunk = serverLevel.getChunkSource().getChunkNow(ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey));
+                if (chunk == null) {
+                    continue;
+                }
+                if (!index.scannedChunks.contains(chunkKey)) {
+                    // Still waiting for its scan, so there is nothing complete to fingerprint
+                    index.unsavedChunks.remove(chunkKey);
+                    continue;
+                }
+                saveSnapshot(index, chunkKey, chunk, SectionFingerprints.of(captureTrackedSections(chunk), isTrackedState));
             }
         } finally {
-            PerformanceMetrics.stopTimer("chunk_unload");
+            CHUNK_SNAPSHOT_SAVE_TIMER.stop(started);
+        }
+    }
+    
+    /**
+     * Makes a chunk's blocks visible to queries and marks the chunk as scanned
+     */
+    private void installChunk(LevelIndex index, long chunkKey, ChunkBlockIndex discoveredBlocks) {
+        if (!discoveredBlocks.isEmpty()) {
+            // Chunks with nothing tracked store nothing at all
+            discoveredBlocks.trim();
+            index.chunks.put(chunkKey, discoveredBlocks);
+        } else if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("No tracked blocks found in chunk {}", new ChunkPos(chunkKey));
         }
+        
+        index.scannedChunks.add(chunkKey);
+        index.queryMemo.invalidate(ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey));
     }
     
     /**
-     * Cleanup runtime block mappings that are no longer in use
+     * Marks a chunk's index as modified: pending scans of it must be redone.
+     * Memoized queries are left alone, since journaled changes are only applied at
+     * tick end right before the memo is cleared, or on unload, which drops them anyway.
      */
-    private void cleanupRuntimeMappings() {
-        PerformanceMetrics.startTimer("runtime_cleanup");
+    private void markChanged(LevelIndex index, long chunkKey) {
+        asyncScanner.markDirty(index, chunkKey);
+        index.unsavedChunks.add(chunkKey);
+    }
+    
+    /**
+     * Publishes completed async scans. Called once per server tick.
+     */
+    public void publishPendingScans() {
+        if (!asyncScanner.hasCompleted()) {
+            return;
+        }
+        long started = CHUNK_PUBLISH_TIMER.start();
+        List<AsyncChunkScanner.ScanJob> stale;
         try {
-            LOGGER.debug("Starting runtime mappings cleanup");
-            int beforeSize = runtimeBlockToTracker.size();
-            
-            // Get all currently tracked blocks
-            Set<TrackedBlock> activeTrackers = new HashSet<>();
-            chunkMap.values().forEach(chunk -> activeTrackers.addAll(chunk.values()));
+            stale = asyncScanner.drain(AutoBreedConfig.ASYNC_SCAN_PUBLISH_BUDGET.get());
+        } finally {
+            CHUNK_PUBLISH_TIMER.stop(started);
+        }
+        // Outside the publish timer, as the rescans time themselves as chunk scans
+        for (AsyncChunkScanner.ScanJob job : stale) {
+            asyncScanner.rescan(job);
+        }
+    }
+    
+    /**
+     * Drops all memoized queries. Called at the end of every server tick.
+     */
+    public void clearQueryMemos() {
+        levels.values().forEach(index -> index.queryMemo.clear());
+    }
+    
+    /**
+     * Stops the async scan pool. Pending results are dropped.
+     */
+    public void shutdown() {
+        levels.values().forEach(asyncScanner::cancelAll);
+        asyncScanner.shutdown();
+    }
+    
+    /**
+     * Processes a single block during chunk scanning.
+     */
+    private void processBlockInSection(
+            TrackedBlock tracker,
+            BlockState state,
+            BlockPos worldPos,
+            ResourceKey<Level> dimension,
+            ChunkBlockIndex blocksInChunk) {
+        if (!tracker.matches(state) || !ChunkRelativePos.isPackable(worldPos.getY())) {
+            return;
+        }
+        
+        if (!tracker.onDiscovered(dimension, worldPos, state)) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("{} rejected discovery at {}", tracker.getClass().getSimpleName(), worldPos);
+            }
+            return;
+        }
+        
+        blocksInChunk.put(ChunkRelativePos.pack(worldPos), getTypeId(tracker), tracker.isConsumable(dimension, worldPos));
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Discovered {} at {}", state, worldPos);
+        }
+    }
+    
+    /**
+     * Called when a chunk is unloaded, before it is saved.
+     * A fully scanned chunk is parked in the recently unloaded cache, keeping its tracker state,
+     * so reloading it soon does not need a scan; otherwise its blocks are dropped.
+     */
+    public void onChunkUnload(LevelAccessor level, ChunkAccess chunk) {
+        long started = CHUNK_UNLOAD_TIMER.start();
+        try {
+            LevelIndex index = getIndex(level);
+            if (index == null) {
+                return;
+            }
+            ChunkPos chunkPos = chunk.getPos();
+            long chunkKey = chunkPos.toLong();
             
-            // Remove runtime mappings for blocks we're not tracking
-            runtimeBlockToTracker.values().removeIf(tracker -> !activeTrackers.contains(tracker));
+            // Catch the index up with this tick's changes before it is saved or parked
+            flushPendingChanges(index, chunkKey, level, chunk);
+            boolean persist = AutoBreedConfig.PERSIST_CHUNK_INDEX.get();
+            int maxParked = AutoBreedConfig.RECENT_CHUNK_CACHE_SIZE.get();
+            // Fingerprints walk every cell of the tracked sections, so only take them if the index is kept
+            SectionFingerprints fingerprints = index.scannedChunks.contains(chunkKey) && (persist || maxParked > 0)
+                ? SectionFingerprints.of(captureTrackedSections(chunk), isTrackedState) : null;
+            if (persist && fingerprints != null) {
+                saveSnapshot(index, chunkKey, chunk, fingerprints);
+            }
+            index.unsavedChunks.remove(chunkKey);
             
-            // Clean up the runtime IDs bitset
-            runtimeTrackedIds.clear();
-            runtimeBlockToTracker.keySet().forEach(runtimeTrackedIds::set);
+            // Drop any scan still in flight for this chunk
+            asyncScanner.cancel(index, chunkKey);
             
-            // Clean up stable to runtime mappings
-            stableToRuntimeId.values().removeIf(runtimeId -> !runtimeBlockToTracker.containsKey(runtimeId));
+            // Get the blocks in the chunk before removing
+            ChunkBlockIndex blocksInChunk = index.chunks.remove(chunkKey);
+            boolean scanned = index.scannedChunks.remove(chunkKey);
             
-            int removedCount = beforeSize - runtimeBlockToTracker.size();
-            if (removedCount > 0) {
-                LOGGER.info("Cleaned up {} stale runtime mappings", removedCount);
+            if (scanned && maxParked > 0 && !fingerprints.isEmpty()) {
+                // Chunks without tracked sections reload without a scan anyway, so only these are worth keeping
+                index.recentChunks.put(chunkKey, blocksInChunk, fingerprints,
+                    maxParked, AutoBreedConfig.RECENT_CHUNK_CACHE_KIB.get() * 1024L, (key, entry) -> evictParked(index, key, entry));
+            } else if (blocksInChunk != null && !blocksInChunk.isEmpty()) {
+                LOGGER.debug("Unloading chunk {} with {} tracked blocks", chunkPos, blocksInChunk.size());
+                notifyChunkRemoved(index.dimension, chunkPos.x, chunkPos.z, blocksInChunk);
             }
-        } catch (Exception e) {
-            LOGGER.error("Error during runtime mappings cleanup: {}", e.getMessage());
+            
+            index.queryMemo.invalidate(chunkPos.x, chunkPos.z);
         } finally {
-            PerformanceMetrics.stopTimer("runtime_cleanup");
+            CHUNK_UNLOAD_TIMER.stop(started);
         }
     }
     
     /**
-     * Called when a block is placed
+     * Notifies trackers about all blocks of a chunk leaving the index
      */
-    public void onBlockPlace(BlockPos pos, LevelAccessor level, BlockState state) {
-        PerformanceMetrics.startTimer("block_place");
-        try {
-            TrackedBlock tracker = getTracker(state);
-            if (tracker != null && tracker.matches(state) && tracker.onDiscovered(pos, level, state)) {
-                ChunkPos chunkPos = new ChunkPos(pos);
-                ChunkRelativePos relPos = ChunkRelativePos.fromBlockPos(pos);
-                chunkMap.computeIfAbsent(chunkPos, k -> new ConcurrentHashMap<>())
-                       .put(relPos, tracker);
+    private void notifyChunkRemoved(ResourceKey<Level> dimension, int chunkX, int chunkZ, ChunkBlockIndex blocksInChunk) {
+        for (byte typeId = 0; typeId < trackersById.length; typeId++) {
+            TrackedBlock tracker = trackersById[typeId];
+            ChunkBlockIndex.Bucket bucket = blocksInChunk.bucket(typeId, false);
+            for (int i = 0; bucket != null && i < bucket.count(); i++) {
+                BlockPos worldPos = ChunkRelativePos.toBlockPos(bucket.packedAt(i), chunkX, chunkZ);
+                try {
+                    tracker.onRemoved(dimension, worldPos);
+                } catch (Exception e) {
+                    LOGGER.error("Error notifying tracker about block removal at {}: {}", worldPos, e.getMessage());
+                }
             }
-        } finally {
-            PerformanceMetrics.stopTimer("block_place");
         }
     }
     
     /**
-     * Called when a block is broken
+     * Records that the block at a position was placed, broken or changed state, or that its
+     * tracker's bookkeeping changed (e.g. a hay bale being eaten). Changes are journaled per
+     * position and applied once at the end of the tick, so bursts of events for the same block
+     * cost a single index update. Until then, searches skip journaled positions.
+     */
+    public void onBlockChanged(BlockPos pos, LevelAccessor level) {
+        LevelIndex index = getOrCreateIndex(level);
+        if (index == null || !ChunkRelativePos.isPackable(pos.getY())) {
+            return;
+        }
+        boolean added = index.pendingChanges.add(pos.asLong());
+        CHANGE_JOURNAL_HITS.record(!added);
+    }
+    
+    /**
+     * Applies the changes journaled during the tick, reading each block's state as it is now.
+     * Called once per server tick.
+     */
+    public void applyPendingChanges(MinecraftServer server) {
+        for (LevelIndex index : levels.values()) {
+            applyPendingChanges(index, server.getLevel(index.dimension));
+        }
+    }
+    
+    /**
+     * Applies one level's journaled changes, e.g. ahead of the tick end before its chunks are snapshotted
      */
-    public void onBlockBreak(BlockPos pos, LevelAccessor level, BlockState oldState) {
-        PerformanceMetrics.startTimer("block_break");
+    private void applyPendingChanges(LevelIndex index, ServerLevel level) {
+        if (index.pendingChanges.isEmpty()) {
+            return;
+        }
+        long started = JOURNAL_APPLY_TIMER.start();
         try {
-            ChunkPos chunkPos = new ChunkPos(pos);
-            Map<ChunkRelativePos, TrackedBlock> blocksInChunk = chunkMap.get(chunkPos);
-            if (blocksInChunk != null) {
-                ChunkRelativePos relPos = ChunkRelativePos.fromBlockPos(pos);
-                TrackedBlock tracker = blocksInChunk.remove(relPos);
-                if (tracker != null) {
-                    tracker.onRemoved(pos, level);
-                    if (blocksInChunk.isEmpty()) {
-                        chunkMap.remove(chunkPos);
-                    }
+            LongIterator changes = index.pendingChanges.iterator();
+            while (level != null && changes.hasNext()) {
+                BlockPos pos = BlockPos.of(changes.nextLong());
+                // Chunks that unloaded since were flushed on unload
+                LevelChunk chunk = level.getChunkSource().getChunkNow(pos.getX() >> 4, pos.getZ() >> 4);
+                if (chunk != null) {
+                    applyChange(index, pos, level, chunk.getBlockState(pos));
                 }
             }
+            index.pendingChanges.clear();
         } finally {
-            PerformanceMetrics.stopTimer("block_break");
+            JOURNAL_APPLY_TIMER.stop(started);
         }
     }
     
     /**
-     * Called when a block's state changes
+     * Applies the journaled changes of one chunk ahead of the rest, e.g. before it unloads
      */
-    public void onBlockChanged(BlockPos pos, LevelAccessor level, BlockState newState) {
-        PerformanceMetrics.startTimer("block_change");
-        try {
-            ChunkPos chunkPos = new ChunkPos(pos);
-            Map<ChunkRelativePos, TrackedBlock> blocksInChunk = chunkMap.get(chunkPos);
-            if (blocksInChunk != null) {
-                ChunkRelativePos relPos = ChunkRelativePos.fromBlockPos(pos);
-                TrackedBlock tracker = blocksInChunk.get(relPos);
-                if (tracker != null) {
-                    tracker.onStateChanged(pos, level, newState);
+    private void flushPendingChanges(LevelIndex index, long chunkKey, LevelAccessor level, ChunkAccess chunk) {
+        if (index.pendingChanges.isEmpty()) {
+            return;
+        }
+        LongIterator changes = index.pendingChanges.iterator();
+        while (changes.hasNext()) {
+            long packedPos = changes.nextLong();
+            if (ChunkPos.asLong(BlockPos.getX(packedPos) >> 4, BlockPos.getZ(packedPos) >> 4) == chunkKey) {
+                changes.remove();
+                BlockPos pos = BlockPos.of(packedPos);
+                applyChange(index, pos, level, chunk.getBlockState(pos));
+            }
+        }
+    }
+    
+    /**
+     * Brings the index entry of a position in line with the block now there: updates a tracked
+     * block in place, drops one that was broken or replaced, and adds a tracked block that appeared
+     */
+    void applyChange(LevelIndex index, BlockPos pos, LevelAccessor level, BlockState newState) {
+        BlockChangeEvent event = new BlockChangeEvent();
+        event.begin();
+        String result = updateIndex(index, pos, level, newState);
+        if (event.shouldCommit()) {
+            event.dimension = index.dimension.location().toString();
+            event.x = pos.getX();
+            event.y = pos.getY();
+            event.z = pos.getZ();
+            event.block = BuiltInRegistries.BLOCK.getKey(newState.getBlock()).toString();
+            event.result = result;
+            event.commit();
+        }
+    }
+    
+    /**
+     * @return one of the {@link BlockChangeEvent} results
+     */
+    private String updateIndex(LevelIndex index, BlockPos pos, LevelAccessor level, BlockState newState) {
+        long chunkKey = ChunkPos.asLong(pos);
+        
+        // Scans covering this chunk are now stale
+        markChanged(index, chunkKey);
+        ChunkBlockIndex blocksInChunk = index.chunks.get(chunkKey);
+        int packedPos = ChunkRelativePos.pack(pos);
+        byte typeId = blocksInChunk == null ? -1 : blocksInChunk.get(packedPos);
+        if (typeId >= 0) {
+            TrackedBlock tracker = trackersById[typeId];
+            if (tracker.matches(newState)) {
+                tracker.onStateChanged(index.dimension, pos, newState);
+                if (blocksInChunk.setConsumable(packedPos, typeId, tracker.isConsumable(index.dimension, pos))) {
+                    // e.g. a crop just ripened
+                    wakeups.notify(level, pos, tracker.getWakeKind(), newState);
                 }
+                return BlockChangeEvent.UPDATED;
+            }
+            // Broken or replaced by another block
+            blocksInChunk.remove(packedPos);
+            tracker.onRemoved(index.dimension, pos);
+            if (blocksInChunk.isEmpty()) {
+                index.chunks.remove(chunkKey);
             }
-        } finally {
-            PerformanceMetrics.stopTimer("block_change");
         }
+        
+        TrackedBlock tracker = getTracker(newState);
+        if (tracker != null && tracker.matches(newState) && tracker.onDiscovered(index.dimension, pos, newState)) {
+            boolean consumable = tracker.isConsumable(index.dimension, pos);
+            index.chunks.computeIfAbsent(chunkKey, k -> new ChunkBlockIndex(trackersById.length))
+                   .put(packedPos, getTypeId(tracker), consumable);
+            if (consumable) {
+                wakeups.notify(level, pos, tracker.getWakeKind(), newState);
+            }
+            return BlockChangeEvent.ADDED;
+        }
+        return typeId >= 0 ? BlockChangeEvent.REMOVED : BlockChangeEvent.IGNORED;
+    }
+    
+    /**
+     * Cheap filter for block updates whose state is not a tracked block: true if a tracked block
+     * is indexed at the position, or its chunk has a scan in flight that the change may invalidate
+     */
+    public boolean isTrackedPosition(LevelAccessor level, BlockPos pos) {
+        LevelIndex index = getIndex(level);
+        if (index == null) {
+            return false;
+        }
+        long chunkKey = ChunkPos.asLong(pos);
+        ChunkBlockIndex blocksInChunk = index.chunks.get(chunkKey);
+        if (blocksInChunk != null && ChunkRelativePos.isPackable(pos.getY()) && blocksInChunk.isTracked(ChunkRelativePos.pack(pos))) {
+            return true;
+        }
+        return !index.pendingScans.isEmpty() && index.pendingScans.containsKey(chunkKey);
+    }
+    
+    /**
+     * Adds journaled positions to a search's skip predicate: their index entries are stale
+     * until the end of the tick. Resolving each one against the live block instead would cost
+     * every search a pass over the tick's journal, which in a large farm's growth ticks is
+     * far longer than the one tick the skipped blocks stay hidden.
+     */
+    private static LongPredicate skipPending(LevelIndex index, LongPredicate skip) {
+        if (index.pendingChanges.isEmpty()) {
+            return skip;
+        }
+        LongPredicate pending = index.pendingChanges::contains;
+        return skip == null ? pending : pending.or(skip);
+    }
+    
+    /**
+     * Find all tracked blocks of a specific type within a horizontal radius and vertical extent of a position.
+     * With {@code consumableOnly} set, only blocks the tracker currently reports as consumable are returned.
+     * Blocks with a journaled change are left out until the journal is applied at the end of the tick.
+     */
+    public List<BlockPos> findBlocksInRadius(
+            LevelAccessor level, BlockPos center, int maxRadius, int verticalRadius, TrackedBlock type, boolean consumableOnly) {
+        List<BlockPos> nearbyBlocks = new ArrayList<>();
+        forEachInRadius(level, center, maxRadius, verticalRadius, type, consumableOnly,
+            packedPos -> nearbyBlocks.add(BlockPos.of(packedPos)));
+        return nearbyBlocks;
     }
     
     /**
-     * Find all tracked blocks of a specific type within radius of a position
+     * Visit every tracked block of a specific type within a horizontal radius and vertical extent of a position.
+     * Positions are passed as {@link BlockPos#asLong} values, so nothing is allocated per match.
      */
-    public List<BlockPos> findBlocksInRadius(BlockPos center, int maxRadius, TrackedBlock type) {
-        PerformanceMetrics.startTimer("radius_search");
+    public void forEachInRadius(
+            LevelAccessor level, BlockPos center, int maxRadius, int verticalRadius, TrackedBlock type,
+            boolean consumableOnly, LongConsumer visitor) {
+        forEachInRadius(getIndex(level), center, maxRadius, verticalRadius, type, consumableOnly, visitor);
+    }
+    
+    /**
+     * {@link #forEachInRadius(LevelAccessor, BlockPos, int, int, TrackedBlock, boolean, LongConsumer)}
+     * over one dimension's index, which may be null
+     */
+    void forEachInRadius(
+            LevelIndex index, BlockPos center, int maxRadius, int verticalRadius, TrackedBlock type,
+            boolean consumableOnly, LongConsumer visitor) {
+        long started = RADIUS_SEARCH_TIMER.start();
+        FoodSearchEvent event = new FoodSearchEvent();
+        event.begin();
+        int candidates = 0;
+        int visited = 0;
         try {
-            ChunkPos centerChunk = new ChunkPos(center);
-            int chunkRadius = (maxRadius >> 4) + 1;  // Convert block radius to chunk radius
-            List<BlockPos> nearbyBlocks = new ArrayList<>();
-            int maxRadiusSq = maxRadius * maxRadius;
-
-            // Check all chunks in range
-            for (int dx = -chunkRadius; dx <= chunkRadius; dx++) {
-                for (int dz = -chunkRadius; dz <= chunkRadius; dz++) {
+            byte typeId = getTypeId(type);
+            if (index == null || typeId < 0) {
+                return;
+            }
+            
+            int x = center.getX();
+            int y = center.getY();
+            int z = center.getZ();
+            long maxRadiusSq = (long) maxRadius * maxRadius;
+            VerticalRange range = VerticalRange.of(y, verticalRadius);
+            if (range == null) {
+                return;
+            }
+            
+            // Check all chunks overlapping the search square
+            for (int chunkX = (x - maxRadius) >> 4; chunkX <= (x + maxRadius) >> 4; chunkX++) {
+                for (int chunkZ = (z - maxRadius) >> 4; chunkZ <= (z + maxRadius) >> 4; chunkZ++) {
                     // Skip chunks that are definitely out of range
-                    if (dx * dx + dz * dz > (chunkRadius + 1) * (chunkRadius + 1)) continue;
+                    if (horizontalDistSqToChunk(x, z, chunkX, chunkZ) > maxRadiusSq) continue;
                     
-                    ChunkPos checkChunk = new ChunkPos(
-                        centerChunk.x + dx,
-                        centerChunk.z + dz
-                    );
+                    // Only this type's bucket is visited; chunks without any are skipped outright
+                    ChunkBlockIndex blocksInChunk = index.getChunk(chunkX, chunkZ);
+                    ChunkBlockIndex.Bucket bucket = blocksInChunk == null ? null : blocksInChunk.bucket(typeId, consumableOnly);
+                    if (bucket == null || !range.overlaps(bucket)) continue;
                     
-                    Map<ChunkRelativePos, TrackedBlock> blocksInChunk = chunkMap.get(checkChunk);
-                    if (blocksInChunk != null) {
-                        blocksInChunk.forEach((relPos, block) -> {
-                            if (block == type) {
-                                BlockPos worldPos = relPos.toBlockPos(checkChunk);
-                                if (center.distSqr(worldPos) <= maxRadiusSq) {
-                                    nearbyBlocks.add(worldPos);
-                                }
+                    // Positions sort by y, so the vertical extent is one contiguous run
+                    int count = bucket.count();
+                    int baseX = chunkX << 4;
+                    int baseZ = chunkZ << 4;
+                    for (int i = bucket.lowerBound(range.minPacked()); i < count; i++) {
+                        int packedPos = bucket.packedAt(i);
+                        if (packedPos > range.maxPacked()) break;
+                        int bx = baseX + ChunkRelativePos.unpackX(packedPos);
+                        int by = ChunkRelativePos.unpackY(packedPos);
+                        int bz = baseZ + ChunkRelativePos.unpackZ(packedPos);
+                        candidates++;
+                        if (horizontalDistSq(x, z, bx, bz) <= maxRadiusSq) {
+                            long worldPos = BlockPos.asLong(bx, by, bz);
+                            // Blocks changed this tick are left out until the journal is applied
+                            if (!index.pendingChanges.contains(worldPos)) {
+                                visitor.accept(worldPos);
+                                visited++;
                             }
-                        });
+                        }
                     }
                 }
             }
-
-            return nearbyBlocks;
         } finally {
-            PerformanceMetrics.stopTimer("radius_search");
+            RADIUS_SEARCH_TIMER.stop(started);
+            if (index != null && event.shouldCommit()) {
+                commitSearchEvent(event, index, center, maxRadius, type, consumableOnly, false, candidates, visited > 0);
+            }
         }
     }
     
     /**
-     * Find the nearest tracked block of a specific type
+     * Find the nearest tracked block of a specific type, optionally only among consumable ones
+     */
+    public BlockPos findNearest(
+            LevelAccessor level, BlockPos start, int maxRadius, int verticalRadius, TrackedBlock type, boolean consumableOnly) {
+        return findNearest(level, start, maxRadius, verticalRadius, type, consumableOnly, null);
+    }
+    
+    /**
+     * Find the nearest tracked block of a specific type, ignoring positions rejected by {@code skip}
+     * (e.g. targets {@link TargetReservations reserved} by other animals)
+     */
+    public BlockPos findNearest(
+            LevelAccessor level, BlockPos start, int maxRadius, int verticalRadius, TrackedBlock type,
+            boolean consumableOnly, LongPredicate skip) {
+        long nearest = findNearestPacked(level, start, maxRadius, verticalRadius, type, consumableOnly, skip);
+        return nearest == NO_BLOCK ? null : BlockPos.of(nearest);
+    }
+    
+    /**
+     * Find the nearest tracked block of a specific type without allocating.
+     * Candidates must lie within {@code maxRadius} horizontally and {@code verticalRadius}
+     * vertically; among those the closest in 3D wins. Chunks are visited in square rings
+     * around the start chunk, and the search stops as soon as no block in the next ring
+     * could be closer than the best match so far. With {@code consumableOnly} set the
+     * search runs over the consumable subset, so it never returns an unusable target.
+     * Positions for which {@code skip} returns true, given as {@link BlockPos#asLong}
+     * values, are passed over; it may be null. Positions with a journaled change are passed
+     * over as well rather than resolved against the live block, so a crop that ripened this
+     * tick is found from the next tick on, after the journal is applied and its wake-up sent.
+     * @return the position as a {@link BlockPos#asLong} value, or {@link #NO_BLOCK}
+     */
+    public long findNearestPacked(
+            LevelAccessor level, BlockPos start, int maxRadius, int verticalRadius, TrackedBlock type,
+            boolean consumableOnly, LongPredicate skip) {
+        return findNearestPacked(getIndex(level), start, maxRadius, verticalRadius, type, consumableOnly, skip);
+    }
+    
+    /**
+     * {@link #findNearestPacked(LevelAccessor, BlockPos, int, int, TrackedBlock, boolean, LongPredicate)}
+     * over one dimension's index, which may be null
      */
-    public BlockPos findNearest(BlockPos start, int maxRadius, TrackedBlock type) {
-        PerformanceMetrics.startTimer("find_nearest");
+    long findNearestPacked(
+            LevelIndex index, BlockPos start, int maxRadius, int verticalRadius, TrackedBlock type,
+            boolean consumableOnly, LongPredicate skip) {
+        long started = FIND_NEAREST_TIMER.start();
+        FoodSearchEvent event = new FoodSearchEvent();
+        event.begin();
+        int candidates = 0;
+        boolean memoized = false;
+        long found = NO_BLOCK;
         try {
-            return findBlocksInRadius(start, maxRadius, type).stream()
-                .min((a, b) -> Double.compare(start.distSqr(a), start.distSqr(b)))
-                .orElse(null);
+            byte typeId = getTypeId(type);
+            if (index == null || typeId < 0) {
+                return NO_BLOCK;
+            }
+            
+            int x = start.getX();
+            int y = start.getY();
+            int z = start.getZ();
+            int centerChunkX = x >> 4;
+            int centerChunkZ = z >> 4;
+            int localX = x & 0xF;
+            int localZ = z & 0xF;
+            long maxRadiusSq = (long) maxRadius * maxRadius;
+            VerticalRange range = VerticalRange.of(y, verticalRadius);
+            if (range == null) {
+                return NO_BLOCK;
+            }
+            skip = skipPending(index, skip);
+            
+            // Herds share one candidate list per chunk section and tick
+            if (maxRadius <= MEMO_MAX_RADIUS) {
+                QueryMemo.Key key = new QueryMemo.Key(
+                    ChunkPos.asLong(centerChunkX, centerChunkZ), y >> 4, typeId, maxRadius, verticalRadius, consumableOnly);
+                QueryMemo.Entry memo = index.queryMemo.get(key);
+                QUERY_MEMO_HITS.record(memo != null);
+                if (memo == null) {
+                    memo = buildMemo(index, centerChunkX, centerChunkZ, y >> 4, typeId, maxRadius, verticalRadius, consumableOnly);
+                    index.queryMemo.put(key, memo);
+                }
+                if (!memo.isOverflow()) {
+                    memoized = true;
+                    candidates = memo.size();
+                    found = memo.pickNearest(x, y, z, maxRadiusSq, verticalRadius, skip);
+                    return found;
+                }
+            }
+            
+            int maxRing = Math.max(
+                Math.max(((x + maxRadius) >> 4) - centerChunkX, centerChunkX - ((x - maxRadius) >> 4)),
+                Math.max(((z + maxRadius) >> 4) - centerChunkZ, centerChunkZ - ((z - maxRadius) >> 4)));
+            
+            long best = NO_BLOCK;
+            // The horizontal limit caps the 3D distance only loosely, so track both
+            long bestDistSq = Long.MAX_VALUE;
+            long ringLimitSq = maxRadiusSq + 1;
+            
+            for (int ring = 0; ring <= maxRing; ring++) {
+                if (ring > 0) {
+                    // Closest any block of this ring can be: leave the inner square on its nearest side
+                    int inner = (ring - 1) << 4;
+                    long ringDist = Math.min(
+                        Math.min(localX + 1, 16 - localX),
+                        Math.min(localZ + 1, 16 - localZ)) + inner;
+                    if (ringDist * ringDist >= Math.min(bestDistSq, ringLimitSq)) {
+                        break;
+                    }
+                }
+                
+                for (int dx = -ring; dx <= ring; dx++) {
+                    // Interior columns only need the top and bottom edge of the ring
+                    int step = (dx == -ring || dx == ring) ? 1 : Math.max(1, ring * 2);
+                    for (int dz = -ring; dz <= ring; dz += step) {
+                        int chunkX = centerChunkX + dx;
+                        int chunkZ = centerChunkZ + dz;
+                        if (horizontalDistSqToChunk(x, z, chunkX, chunkZ) >= Math.min(bestDistSq, ringLimitSq)) continue;
+                        
+                        ChunkBlockIndex blocksInChunk = index.getChunk(chunkX, chunkZ);
+                        ChunkBlockIndex.Bucket bucket = blocksInChunk == null ? null : blocksInChunk.bucket(typeId, consumableOnly);
+                        if (bucket == null || !range.overlaps(bucket)) continue;
+                        
+                        int count = bucket.count();
+                        int baseX = chunkX << 4;
+                        int baseZ = chunkZ << 4;
+                        for (int i = bucket.lowerBound(range.minPacked()); i < count; i++) {
+                            int packedPos = bucket.packedAt(i);
+                            if (packedPos > range.maxPacked()) break;
+                            candidates++;
+                            int bx = baseX + ChunkRelativePos.unpackX(packedPos);
+                            int by = ChunkRelativePos.unpackY(packedPos);
+                            int bz = baseZ + ChunkRelativePos.unpackZ(packedPos);
+                            if (horizontalDistSq(x, z, bx, bz) > maxRadiusSq) continue;
+                            long distSq = distSq(x, y, z, bx, by, bz);
+                            if (distSq < bestDistSq) {
+                                long candidate = BlockPos.asLong(bx, by, bz);
+                                if (skip != null && skip.test(candidate)) continue;
+                                bestDistSq = distSq;
+                                best = candidate;
+                            }
+                        }
+                    }
+                }
+            }
+            
+            found = best;
+            return best;
+        } finally {
+            FIND_NEAREST_TIMER.stop(started);
+            if (index != null && event.shouldCommit()) {
+                commitSearchEvent(event, index, start, maxRadius, type, consumableOnly, memoized, candidates, found != NO_BLOCK);
+            }
+        }
+    }
+    
+    private static void commitSearchEvent(FoodSearchEvent event, LevelIndex index, BlockPos center, int radius,
+                                          TrackedBlock type, boolean consumableOnly, boolean memoized, int candidates, boolean hit) {
+        event.dimension = index.dimension.location().toString();
+        event.x = center.getX();
+        event.y = center.getY();
+        event.z = center.getZ();
+        event.radius = radius;
+        event.blockType = BuiltInRegistries.BLOCK.getKey(type.getBlock()).toString();
+        event.consumableOnly = consumableOnly;
+        event.memoized = memoized;
+        event.candidates = candidates;
+        event.result = hit ? FoodSearchEvent.HIT : FoodSearchEvent.MISS;
+        event.commit();
+    }
+    
+    /**
+     * Collects every block of a type that any start position in the given chunk section
+     * could reach within the radii
+     */
+    private QueryMemo.Entry buildMemo(
+            LevelIndex index, int originChunkX, int originChunkZ, int sectionY,
+            byte typeId, int maxRadius, int verticalRadius, boolean consumableOnly) {
+        int minX = originChunkX << 4;
+        int minZ = originChunkZ << 4;
+        int minChunkX = (minX - maxRadius) >> 4;
+        int maxChunkX = (minX + 15 + maxRadius) >> 4;
+        int minChunkZ = (minZ - maxRadius) >> 4;
+        int maxChunkZ = (minZ + 15 + maxRadius) >> 4;
+        int minY = sectionY << 4;
+        long maxRadiusSq = (long) maxRadius * maxRadius;
+        VerticalRange range = VerticalRange.between(minY - verticalRadius, minY + 15 + verticalRadius);
+        
+        long[] candidates = new long[16];
+        int count = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX && range != null; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                ChunkBlockIndex blocksInChunk = index.getChunk(chunkX, chunkZ);
+                ChunkBlockIndex.Bucket bucket = blocksInChunk == null ? null : blocksInChunk.bucket(typeId, consumableOnly);
+                if (bucket == null || !range.overlaps(bucket)) continue;
+                
+                int bucketCount = bucket.count();
+                int baseX = chunkX << 4;
+                int baseZ = chunkZ << 4;
+                for (int i = bucket.lowerBound(range.minPacked()); i < bucketCount; i++) {
+                    int packedPos = bucket.packedAt(i);
+                    if (packedPos > range.maxPacked()) break;
+                    int bx = baseX + ChunkRelativePos.unpackX(packedPos);
+                    int bz = baseZ + ChunkRelativePos.unpackZ(packedPos);
+                    // Reachable from some column of the origin chunk
+                    if (horizontalDistSqToChunk(bx, bz, originChunkX, originChunkZ) > maxRadiusSq) continue;
+                    if (count == QueryMemo.MAX_CANDIDATES) {
+                        // Too dense to be worth memoizing
+                        return new QueryMemo.Entry(minChunkX, maxChunkX, minChunkZ, maxChunkZ,
+                            minX + 8, minY + 8, minZ + 8, null, 0);
+                    }
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, count * 2);
+                    }
+                    candidates[count++] = BlockPos.asLong(bx, ChunkRelativePos.unpackY(packedPos), bz);
+                }
+            }
+        }
+        return new QueryMemo.Entry(minChunkX, maxChunkX, minChunkZ, maxChunkZ,
+            minX + 8, minY + 8, minZ + 8, candidates, count);
+    }
+    
+    private static long distSq(int x1, int y1, int z1, int x2, int y2, int z2) {
+        long dx = x1 - x2;
+        long dy = y1 - y2;
+        long dz = z1 - z2;
+        return dx * dx + dy * dy + dz * dz;
+    }
+    
+    private static long horizontalDistSq(int x1, int z1, int x2, int z2) {
+        long dx = x1 - x2;
+        long dz = z1 - z2;
+        return dx * dx + dz * dz;
+    }
+    
+    /**
+     * A y range expressed as packed-position bounds and a section bitmask
+     */
+    private record VerticalRange(int minPacked, int maxPacked, int sectionMask) {
+        private static final int MIN_Y = -64;
+        private static final int MAX_Y = MIN_Y + 511;  // 9 bits of packed y
+        
+        /**
+         * @return the range y +/- radius, or null if it lies entirely outside the packable heights
+         */
+        static VerticalRange of(int y, int radius) {
+            return between(y - radius, y + radius);
+        }
+        
+        /**
+         * @return the range from lowY to highY inclusive, or null if it lies entirely outside the packable heights
+         */
+        static VerticalRange between(int lowY, int highY) {
+            int minY = Math.max(MIN_Y, lowY);
+            int maxY = Math.min(MAX_Y, highY);
+            if (minY > maxY) {
+                return null;
+            }
+            int minPacked = ChunkRelativePos.pack(0, minY, 0);
+            int maxPacked = ChunkRelativePos.pack(15, maxY, 15);
+            int lowSection = ChunkBlockIndex.sectionOf(minPacked);
+            int highSection = ChunkBlockIndex.sectionOf(maxPacked);
+            int mask = (highSection == 31 ? -1 : (1 << (highSection + 1)) - 1) & (-1 << lowSection);
+            return new VerticalRange(minPacked, maxPacked, mask);
+        }
+        
+        boolean overlaps(ChunkBlockIndex.Bucket bucket) {
+            return (bucket.sectionMask() & sectionMask) != 0;
+        }
+    }
+    
+    /**
+     * Squared horizontal distance from a block column to the closest column of a chunk
+     */
+    private static long horizontalDistSqToChunk(int x, int z, int chunkX, int chunkZ) {
+        int minX = chunkX << 4;
+        int minZ = chunkZ << 4;
+        long dx = x < minX ? minX - x : Math.max(0, x - (minX + 15));
+        long dz = z < minZ ? minZ - z : Math.max(0, z - (minZ + 15));
+        return dx * dx + dz * dz;
+    }
+    
+    /**
+     * Size and estimated heap footprint of one dimension's block index
+     */
+    public record IndexStats(ResourceKey<Level> dimension, int scannedChunks, int chunksWithBlocks,
+                             long blocks, long consumable, long bytes, int pendingScans,
+                             int recentChunks, long recentBytes, long recentEvictions) {}
+    
+    /**
+     * @return the size of every dimension's index
+     */
+    public List<IndexStats> indexStats() {
+        List<IndexStats> stats = new ArrayList<>(levels.size());
+        for (LevelIndex index : levels.values()) {
+            long blocks = 0;
+            long consumable = 0;
+            long bytes = 0;
+            for (ChunkBlockIndex chunk : index.chunks.values()) {
+                blocks += chunk.size();
+                for (byte typeId = 0; typeId < trackersById.length; typeId++) {
+                    consumable += chunk.consumableCount(typeId);
+                }
+                bytes += chunk.estimatedBytes();
+            }
+            stats.add(new IndexStats(index.dimension, index.scannedChunks.size(), index.chunks.size(),
+                blocks, consumable, bytes, index.pendingScans.size(),
+                index.recentChunks.size(), index.recentChunks.bytes(), index.recentChunks.evictions()));
+        }
+        return stats;
+    }
+    
+    /**
+     * Logs the size and estimated heap footprint of each dimension's index
+     */
+    public void logIndexStats() {
+        for (IndexStats stats : indexStats()) {
+            LOGGER.info("Block index for {}: {} scanned chunks, {} chunks with tracked blocks, {} blocks ({} consumable), ~{} KiB",
+                stats.dimension().location(), stats.scannedChunks(), stats.chunksWithBlocks(), stats.blocks(), stats.consumable(), stats.bytes() / 1024);
+            LOGGER.info("Recently unloaded chunks for {}: {} cached, ~{} KiB, {} evicted",
+                stats.dimension().location(), stats.recentChunks(), stats.recentBytes() / 1024, stats.recentEvictions());
+        }
+    }
+    
+    /**
+     * Drop the index partition of a single level, leaving other dimensions untouched
+     */
+    public void clearLevel(LevelAccessor level) {
+        ResourceKey<Level> dimension = dimensionOf(level);
+        if (dimension == null) {
+            return;
+        }
+        long started = CACHE_CLEAR_TIMER.start();
+        try {
+            LevelIndex index = levels.remove(dimension);
+            if (index != null) {
+                LOGGER.info("Clearing cached data for {}", dimension.location());
+                clearIndex(index);
+            }
         } finally {
-            PerformanceMetrics.stopTimer("find_nearest");
+            CACHE_CLEAR_TIMER.stop(started);
         }
     }
     
@@ -480,36 +1280,31 @@ public class ChunkBasedCache {
      * Clear all cached data
      */
     public void clear() {
-        PerformanceMetrics.startTimer("cache_clear");
+        long started = CACHE_CLEAR_TIMER.start();
         try {
             LOGGER.info("Clearing all cached data");
-            
-            // Notify trackers about all blocks being removed
-            chunkMap.forEach((chunkPos, blocksInChunk) -> {
-                blocksInChunk.forEach((relPos, tracker) -> {
-                    try {
-                        BlockPos worldPos = relPos.toBlockPos(chunkPos);
-                        tracker.onRemoved(worldPos, null);
-                    } catch (Exception e) {
-                        LOGGER.error("Error notifying tracker during cache clear at {}: {}", 
-                            relPos.toBlockPos(chunkPos), e.getMessage());
-                    }
-                });
-                blocksInChunk.clear();
-            });
-            
-            // Clear all maps
-            chunkMap.clear();
-            scannedChunks.clear();
-            
-            // Clear runtime mappings
-            runtimeBlockToTracker.clear();
-            runtimeTrackedIds.clear();
-            stableToRuntimeId.clear();
-            
+            levels.values().forEach(this::clearIndex);
+            levels.clear();
             LOGGER.info("Cache cleared successfully");
         } finally {
-            PerformanceMetrics.stopTimer("cache_clear");
+            CACHE_CLEAR_TIMER.stop(started);
         }
     }
-} 
\ No newline at end of file
+    
+    private void clearIndex(LevelIndex index) {
+        asyncScanner.cancelAll(index);
+        
+        // Notify trackers about all blocks being removed
+        index.chunks.long2ObjectEntrySet().forEach(entry -> {
+            long chunkKey = entry.getLongKey();
+            notifyChunkRemoved(index.dimension, ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey), entry.getValue());
+        });
+        
+        index.recentChunks.clear((key, entry) -> evictParked(index, key, entry));
+        index.chunks.clear();
+        index.scannedChunks.clear();
+        index.unsavedChunks.clear();
+        index.pendingChanges.clear();
+        index.queryMemo.clear();
+    }
+}
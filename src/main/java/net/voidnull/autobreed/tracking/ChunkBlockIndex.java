@@ -0,0 +1,332 @@
+package net.voidnull.autobreed.tracking;
+
+import java.util.Arrays;
+
+/**
+ * Compact per-chunk storage of tracked blocks, bucketed by tracker type.
+ * Each type keeps its {@link ChunkRelativePos#pack packed} positions sorted in its own
+ * primitive array, so a query for one type never visits the others and can skip a
+ * chunk outright when its bucket is empty. Lookups are binary searches and chunk
+ * scans append in sorted order, so building an index never shifts elements.
+ *
+ * <p>Each type also keeps a second bucket holding only its consumable positions
+ * (ripe crops, hay bales that can still be eaten), so goals can search for usable
+ * targets directly instead of filtering the full set after the fact.
+ *
+ * <p>Packed positions sort by y first, so each section's blocks form a contiguous run.
+ * A per-bucket bitmask of occupied sections lets vertical range queries skip a chunk
+ * whose blocks all lie on other floors, and {@link Bucket#lowerBound} jumps straight
+ * to the first block of a y range.
+ *
+ * <p>Every section holding a tracked block also keeps an occupancy bitset over its
+ * 4096 cells, shared by all types, so asking whether a position is tracked at all (as
+ * every filtered block update does) is a single bit test.
+ *
+ * <p>Heap cost, estimated from object layouts with compressed oops rather than measured:
+ * the previous {@code ConcurrentHashMap<ChunkRelativePos, TrackedBlock>} spent about 60
+ * bytes per tracked block (32 byte node, 16 byte key, table slot) plus about 150 bytes per
+ * chunk, and was kept even for chunks with nothing tracked. This index spends 4 bytes per
+ * block, 4 more if it is consumable (up to 1.5x with growth slack), plus about 250 bytes
+ * per chunk that holds at least one tracked block and 528 bytes per occupied section.
+ * Per block, the dominant cost is now outside this class: the trackers' own per-position
+ * maps ({@link TrackedCrop} growth, {@link TrackedHayBale} eaten counts) still spend
+ * roughly 60 bytes per block on a map node, a {@code BlockPos} key and a table slot, and
+ * a crop's ripeness is held both there and in its consumable bucket.
+ */
+final class ChunkBlockIndex {
+    private static final int[] EMPTY_POSITIONS = new int[0];
+
+    /**
+     * A sorted set of packed positions with a bitmask of the sections it occupies
+     */
+    static final class Bucket {
+        private int[] positions = EMPTY_POSITIONS;
+        private int count;
+        // Bit n is set when the bucket has a block in section n (section 0 starts at y = -64)
+        private int sectionMask;
+
+        int count() {
+            return count;
+        }
+
+        int packedAt(int i) {
+            return positions[i];
+        }
+
+        /**
+         * @return the section bitmask, bit n covering y = n * 16 - 64 upwards
+         */
+        int sectionMask() {
+            return sectionMask;
+        }
+
+        /**
+         * @return the index of the first position that is not below {@code packedPos}
+         */
+        int lowerBound(int packedPos) {
+            int i = Arrays.binarySearch(positions, 0, count, packedPos);
+            return i >= 0 ? i : -(i + 1);
+        }
+
+        boolean contains(int packedPos) {
+            return count > 0 && Arrays.binarySearch(positions, 0, count, packedPos) >= 0;
+        }
+
+        /**
+         * @return false if the position was already present
+         */
+        boolean add(int packedPos) {
+            // Fast path for scans, which visit positions in ascending order
+            int insertAt;
+            if (count == 0 || positions[count - 1] < packedPos) {
+                insertAt = count;
+            } else {
+                int i = Arrays.binarySearch(positions, 0, count, packedPos);
+                if (i >= 0) {
+                    return false;
+                }
+                insertAt = -(i + 1);
+            }
+
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(4, count + (count >> 1)));
+            }
+            System.arraycopy(positions, insertAt, positions, insertAt + 1, count - insertAt);
+            positions[insertAt] = packedPos;
+            count++;
+            sectionMask |= 1 << sectionOf(packedPos);
+            return true;
+        }
+
+        /**
+         * @return false if the position was not present
+         */
+        boolean remove(int packedPos) {
+            int i = count == 0 ? -1 : Arrays.binarySearch(positions, 0, count, packedPos);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(positions, i + 1, positions, i, count - i - 1);
+            count--;
+
+            // Same-section entries are contiguous, so only the neighbours can keep the section occupied
+            int section = sectionOf(packedPos);
+            boolean stillOccupied = (i > 0 && sectionOf(positions[i - 1]) == section)
+                || (i < count && sectionOf(positions[i]) == section);
+            if (!stillOccupied) {
+                sectionMask &= ~(1 << section);
+            }
+            return true;
+        }
+
+        void trim() {
+            if (positions.length != count) {
+                positions = count == 0 ? EMPTY_POSITIONS : Arrays.copyOf(positions, count);
+            }
+        }
+
+        long estimatedBytes() {
+            // Object header and fields, plus the array unless it is the shared empty one
+            return 24L + (positions == EMPTY_POSITIONS ? 0L : 16L + 4L * positions.length);
+        }
+    }
+
+    private final Bucket[] all;
+    private final Bucket[] consumable;
+    private int size;
+    // Occupancy bitsets by section, 64 longs each; null for sections without tracked blocks
+    private long[][] sectionBits;
+
+    ChunkBlockIndex(int typeCount) {
+        this.all = new Bucket[typeCount];
+        this.consumable = new Bucket[typeCount];
+    }
+
+    static int sectionOf(int packedPos) {
+        return packedPos >>> 12;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int typeCount() {
+        return all.length;
+    }
+
+    /**
+     * @return the bucket of a type, or null if this chunk holds no such blocks
+     */
+    Bucket bucket(byte type, boolean consumableOnly) {
+        return consumableOnly ? consumable[type] : all[type];
+    }
+
+    /**
+     * @return how many blocks of the given type this chunk holds
+     */
+    int count(byte type) {
+        return all[type] == null ? 0 : all[type].count();
+    }
+
+    /**
+     * @return how many consumable blocks of the given type this chunk holds
+     */
+    int consumableCount(byte type) {
+        return consumable[type] == null ? 0 : consumable[type].count();
+    }
+
+    /**
+     * @return true if any type is tracked at the position
+     */
+    boolean isTracked(int packedPos) {
+        long[] bits = sectionBits == null ? null : sectionBits[sectionOf(packedPos)];
+        // Shifting a long only uses the low 6 bits of the distance
+        return bits != null && (bits[(packedPos & 0xFFF) >>> 6] & (1L << packedPos)) != 0;
+    }
+
+    /**
+     * @return the type id stored at the position, or -1 if nothing is tracked there
+     */
+    byte get(int packedPos) {
+        if (!isTracked(packedPos)) {
+            return -1;
+        }
+        for (byte type = 0; type < all.length; type++) {
+            if (all[type] != null && all[type].contains(packedPos)) {
+                return type;
+            }
+        }
+        return -1;
+    }
+
+    boolean contains(int packedPos) {
+        return get(packedPos) >= 0;
+    }
+
+    boolean isConsumable(int packedPos, byte type) {
+        return consumable[type] != null && consumable[type].contains(packedPos);
+    }
+
+    /**
+     * Stores a type id at a position, replacing any previous one
+     */
+    void put(int packedPos, byte type, boolean isConsumable) {
+        byte previous = get(packedPos);
+        if (previous != type) {
+            if (previous >= 0) {
+                removeFrom(previous, packedPos);
+            }
+            if (all[type] == null) {
+                all[type] = new Bucket();
+            }
+            all[type].add(packedPos);
+            if (previous < 0) {
+                setTracked(packedPos);
+                size++;
+            }
+        }
+        setConsumable(packedPos, type, isConsumable);
+    }
+
+    /**
+     * Moves a tracked position in or out of its type's consumable set
+     * @return true if the position was not consumable before and is now
+     */
+    boolean setConsumable(int packedPos, byte type, boolean isConsumable) {
+        if (isConsumable) {
+            if (consumable[type] == null) {
+                consumable[type] = new Bucket();
+            }
+            return consumable[type].add(packedPos);
+        }
+        if (consumable[type] != null && consumable[type].remove(packedPos) && consumable[type].count() == 0) {
+            consumable[type] = null;
+        }
+        return false;
+    }
+
+    /**
+     * @return the type id that was stored at the position, or -1 if nothing was
+     */
+    byte remove(int packedPos) {
+        byte type = get(packedPos);
+        if (type >= 0) {
+            removeFrom(type, packedPos);
+            clearTracked(packedPos);
+        }
+        return type;
+    }
+
+    private void removeFrom(byte type, int packedPos) {
+        all[type].remove(packedPos);
+        if (all[type].count() == 0) {
+            all[type] = null;
+        }
+        setConsumable(packedPos, type, false);
+        size--;
+    }
+
+    private void setTracked(int packedPos) {
+        if (sectionBits == null) {
+            sectionBits = new long[32][];
+        }
+        int section = sectionOf(packedPos);
+        if (sectionBits[section] == null) {
+            sectionBits[section] = new long[SectionScanner.SECTION_SIZE / 64];
+        }
+        sectionBits[section][(packedPos & 0xFFF) >>> 6] |= 1L << packedPos;
+    }
+
+    private void clearTracked(int packedPos) {
+        int section = sectionOf(packedPos);
+        sectionBits[section][(packedPos & 0xFFF) >>> 6] &= ~(1L << packedPos);
+        // Free the section's bitset once no bucket has a block left in it
+        int sectionBit = 1 << section;
+        for (Bucket bucket : all) {
+            if (bucket != null && (bucket.sectionMask() & sectionBit) != 0) {
+                return;
+            }
+        }
+        sectionBits[section] = null;
+    }
+
+    /**
+     * Drops growth slack once a chunk's index is fully built
+     */
+    void trim() {
+        for (int type = 0; type < all.length; type++) {
+            if (all[type] != null) {
+                all[type].trim();
+            }
+            if (consumable[type] != null) {
+                consumable[type].trim();
+            }
+        }
+    }
+
+    long estimatedBytes() {
+        // Object header and fields, the two bucket arrays, then each bucket
+        long bytes = 32L + (16L + 4L * all.length) * 2;
+        if (sectionBits != null) {
+            bytes += 16L + 4L * sectionBits.length;
+            for (long[] bits : sectionBits) {
+                if (bits != null) {
+                    bytes += 16L + 8L * bits.length;
+                }
+            }
+        }
+        for (int type = 0; type < all.length; type++) {
+            if (all[type] != null) {
+                bytes += all[type].estimatedBytes();
+            }
+            if (consumable[type] != null) {
+                bytes += consumable[type].estimatedBytes();
+            }
+        }
+        return bytes;
+    }
+}
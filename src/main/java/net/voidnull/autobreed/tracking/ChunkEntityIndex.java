@@ -0,0 +1,165 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Index of item-carrying entities, bucketed per dimension by chunk and then by the
+ * {@link Item} they carry. Only entities whose item passes the admission filter are kept,
+ * so a search never visits entities no animal could eat, and each bucket's item is
+ * tested once per search instead of once per entity.
+ * Entities are re-keyed through {@link #update} when they change chunk or item.
+ * Only accessed from the server thread.
+ */
+public class ChunkEntityIndex<E extends Entity> {
+    private final Function<E, ItemStack> itemOf;
+    private final Predicate<Item> admit;
+    private final Map<ResourceKey<Level>, LevelEntities<E>> levels = new Reference2ObjectOpenHashMap<>();
+
+    // Where an entity is currently filed
+    private record Slot(long chunkKey, Item item) {}
+
+    private static final class LevelEntities<E> {
+        final Long2ObjectOpenHashMap<Reference2ObjectOpenHashMap<Item, ReferenceArrayList<E>>> chunks = new Long2ObjectOpenHashMap<>();
+        final Reference2ObjectOpenHashMap<E, Slot> slots = new Reference2ObjectOpenHashMap<>();
+    }
+
+    public ChunkEntityIndex(Function<E, ItemStack> itemOf, Predicate<Item> admit) {
+        this.itemOf = itemOf;
+        this.admit = admit;
+    }
+
+    /**
+     * Files an entity under its current chunk and item, or drops it if its item is no longer admitted
+     */
+    public void update(E entity) {
+        Level level = entity.level();
+        ItemStack stack = itemOf.apply(entity);
+        if (!entity.isAlive() || stack.isEmpty() || !admit.test(stack.getItem())) {
+            remove(entity);
+            return;
+        }
+
+        LevelEntities<E> entities = levels.computeIfAbsent(level.dimension(), k -> new LevelEntities<>());
+        Slot slot = new Slot(ChunkPos.asLong(entity.blockPosition()), stack.getItem());
+        Slot previous = entities.slots.put(entity, slot);
+        if (slot.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeFromBucket(entities, previous, entity);
+        }
+        entities.chunks.computeIfAbsent(slot.chunkKey(), k -> new Reference2ObjectOpenHashMap<>())
+            .computeIfAbsent(slot.item(), k -> new ReferenceArrayList<>())
+            .add(entity);
+    }
+
+    public void remove(E entity) {
+        LevelEntities<E> entities = levels.get(entity.level().dimension());
+        if (entities == null) {
+            return;
+        }
+        Slot slot = entities.slots.remove(entity);
+        if (slot != null) {
+            removeFromBucket(entities, slot, entity);
+        }
+    }
+
+    public boolean contains(E entity) {
+        LevelEntities<E> entities = levels.get(entity.level().dimension());
+        return entities != null && entities.slots.containsKey(entity);
+    }
+
+    /**
+     * Finds the live entity closest to {@code origin} whose bounding box intersects {@code box}
+     * and whose item is accepted. Each chunk's item buckets are tested against {@code accepts}
+     * once, using the first stack still holding the bucket's item.
+     */
+    public E findNearest(Level level, AABB box, Vec3 origin, Predicate<ItemStack> accepts) {
+        LevelEntities<E> entities = levels.get(level.dimension());
+        if (entities == null || entities.slots.isEmpty()) {
+            return null;
+        }
+
+        E best = null;
+        double bestDistSq = Double.MAX_VALUE;
+        int minChunkX = ((int) Math.floor(box.minX)) >> 4;
+        int maxChunkX = ((int) Math.floor(box.maxX)) >> 4;
+        int minChunkZ = ((int) Math.floor(box.minZ)) >> 4;
+        int maxChunkZ = ((int) Math.floor(box.maxZ)) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                Reference2ObjectOpenHashMap<Item, ReferenceArrayList<E>> byItem = entities.chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+                if (byItem == null) continue;
+                for (Reference2ObjectMap.Entry<Item, ReferenceArrayList<E>> entry : byItem.reference2ObjectEntrySet()) {
+                    Item item = entry.getKey();
+                    ReferenceArrayList<E> bucket = entry.getValue();
+                    int accepted = 0;  // 0 = not tested yet, 1 = accepted, -1 = rejected
+                    for (int i = 0; i < bucket.size() && accepted >= 0; i++) {
+                        E entity = bucket.get(i);
+                        ItemStack stack = itemOf.apply(entity);
+                        // Skip entities whose item changed since they were filed
+                        if (stack.getItem() != item || !entity.isAlive()) continue;
+                        if (accepted == 0) {
+                            accepted = accepts.test(stack) ? 1 : -1;
+                            if (accepted < 0) break;
+                        }
+                        if (!entity.getBoundingBox().intersects(box)) continue;
+                        double distSq = entity.distanceToSqr(origin);
+                        if (distSq < bestDistSq) {
+                            bestDistSq = distSq;
+                            best = entity;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return how many entities are indexed in a level
+     */
+    public int size(Level level) {
+        LevelEntities<E> entities = levels.get(level.dimension());
+        return entities == null ? 0 : entities.slots.size();
+    }
+
+    public void clearLevel(Level level) {
+        levels.remove(level.dimension());
+    }
+
+    public void clear() {
+        levels.clear();
+    }
+
+    private static <E> void removeFromBucket(LevelEntities<E> entities, Slot slot, E entity) {
+        Reference2ObjectOpenHashMap<Item, ReferenceArrayList<E>> byItem = entities.chunks.get(slot.chunkKey());
+        if (byItem == null) {
+            return;
+        }
+        ReferenceArrayList<E> bucket = byItem.get(slot.item());
+        if (bucket != null) {
+            bucket.remove(entity);
+            if (bucket.isEmpty()) {
+                byItem.remove(slot.item());
+                if (byItem.isEmpty()) {
+                    entities.chunks.remove(slot.chunkKey());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.neoforged.neoforge.attachment.IAttachmentHolder;
+import net.neoforged.neoforge.attachment.IAttachmentSerializer;
+
+/**
+ * A chunk's tracked blocks and their tracker state, saved with the chunk as a data attachment
+ * so loading it again does not need a scan.
+ * The snapshot is only trusted if it was written by the same format, game data version and
+ * tracker set, and every section holding a tracked block still has the fingerprint it
+ * had when the snapshot was taken. A chunk edited outside the game fails the check and is rescanned.
+ */
+public final class ChunkIndexSnapshot {
+    // Bump whenever the saved layout changes
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Placeholder for chunks without a saved snapshot; never valid
+     */
+    public static final ChunkIndexSnapshot EMPTY = new ChunkIndexSnapshot(0, 0, 0, new SectionFingerprints(new int[0], new long[0]), new int[0], new byte[0], new int[0]);
+
+    public static final IAttachmentSerializer<CompoundTag, ChunkIndexSnapshot> SERIALIZER = new IAttachmentSerializer<>() {
+        @Override
+        public ChunkIndexSnapshot read(IAttachmentHolder holder, CompoundTag tag, HolderLookup.Provider provider) {
+            return new ChunkIndexSnapshot(
+                tag.getInt("Version"),
+                tag.getInt("DataVersion"),
+                tag.getInt("Trackers"),
+                new SectionFingerprints(tag.getIntArray("SectionY"), tag.getLongArray("Fingerprints")),
+                tag.getIntArray("Positions"),
+                tag.getByteArray("Types"),
+                tag.getIntArray("States"));
+        }
+
+        @Override
+        public CompoundTag write(ChunkIndexSnapshot snapshot, HolderLookup.Provider provider) {
+            if (snapshot.version == 0) {
+                return null;
+            }
+            CompoundTag tag = new CompoundTag();
+            tag.putInt("Version", snapshot.version);
+            tag.putInt("DataVersion", snapshot.dataVersion);
+            tag.putInt("Trackers", snapshot.trackerLayout);
+            tag.putIntArray("SectionY", snapshot.sections.sectionYs());
+            tag.putLongArray("Fingerprints", snapshot.sections.fingerprints());
+            tag.putIntArray("Positions", snapshot.positions);
+            tag.putByteArray("Types", snapshot.types);
+            tag.putIntArray("States", snapshot.states);
+            return tag;
+        }
+    };
+
+    private final int version;
+    private final int dataVersion;
+    private final int trackerLayout;
+    // Sections holding a tracked block when the snapshot was taken
+    private final SectionFingerprints sections;
+    // Packed chunk-relative positions, tracker type ids and saved tracker state, one entry per block
+    private final int[] positions;
+    private final byte[] types;
+    private final int[] states;
+
+    private ChunkIndexSnapshot(int version, int dataVersion, int trackerLayout, SectionFingerprints sections,
+                               int[] positions, byte[] types, int[] states) {
+        this.version = version;
+        this.dataVersion = dataVersion;
+        this.trackerLayout = trackerLayout;
+        this.sections = sections;
+        this.positions = positions;
+        this.types = types;
+        this.states = states;
+    }
+
+    /**
+     * Takes a snapshot of the given sections and blocks with the current format and data version
+     */
+    static ChunkIndexSnapshot of(int trackerLayout, SectionFingerprints sections, int[] positions, byte[] types, int[] states) {
+        return new ChunkIndexSnapshot(FORMAT_VERSION, currentDataVersion(), trackerLayout, sections, positions, types, states);
+    }
+
+    /**
+     * Checks whether the snapshot still describes a chunk with the given section fingerprints
+     */
+    boolean matches(int trackerLayout, int trackerCount, SectionFingerprints current) {
+        if (version != FORMAT_VERSION || dataVersion != currentDataVersion() || this.trackerLayout != trackerLayout) {
+            return false;
+        }
+        if (types.length != positions.length || states.length != positions.length) {
+            return false;
+        }
+        for (byte type : types) {
+            if (type < 0 || type >= trackerCount) {
+                return false;
+            }
+        }
+        for (int packedPos : positions) {
+            if (!ChunkRelativePos.isValidPacked(packedPos)) {
+                return false;
+            }
+        }
+        return sections.matches(current);
+    }
+
+    int size() {
+        return positions.length;
+    }
+
+    int packedAt(int i) {
+        return positions[i];
+    }
+
+    byte typeAt(int i) {
+        return types[i];
+    }
+
+    int stateAt(int i) {
+        return states[i];
+    }
+
+    private static int currentDataVersion() {
+        return SharedConstants.getCurrentVersion().getDataVersion().getVersion();
+    }
+}
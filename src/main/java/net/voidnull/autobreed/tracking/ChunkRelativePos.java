@@ -12,11 +12,62 @@ public class ChunkRelativePos {
     private final int packedPos;
     
     private ChunkRelativePos(int x, int y, int z) {
-        // Pack coordinates into a single int
+        this.packedPos = pack(x, y, z);
+    }
+    
+    /**
+     * Pack chunk-relative coordinates into a single int.
+     * Packed values sort by y, then z, then x.
+     */
+    public static int pack(int x, int y, int z) {
         // x: 4 bits (0-15)
         // z: 4 bits (0-15)
         // y: 9 bits (-64 to 320)
-        this.packedPos = (x & 0xF) | ((z & 0xF) << 4) | ((y + 64) << 8);
+        return (x & 0xF) | ((z & 0xF) << 4) | ((y + 64) << 8);
+    }
+    
+    public static int pack(BlockPos pos) {
+        return pack(pos.getX(), pos.getY(), pos.getZ());
+    }
+    
+    /**
+     * @return true if the y coordinate fits in the 9 packed bits
+     */
+    public static boolean isPackable(int y) {
+        return y >= -64 && y < 448;
+    }
+    
+    /**
+     * @return true if every y coordinate of the chunk section fits in the 9 packed bits
+     */
+    public static boolean isPackableSection(int sectionY) {
+        return isPackable(sectionY << 4) && isPackable((sectionY << 4) + 15);
+    }
+    
+    /**
+     * @return true if the value is something {@link #pack} can return, e.g. when read back from disk
+     */
+    public static boolean isValidPacked(int packedPos) {
+        return (packedPos & ~0x1FFFF) == 0;
+    }
+    
+    public static int unpackX(int packedPos) {
+        return packedPos & 0xF;
+    }
+    
+    public static int unpackY(int packedPos) {
+        return ((packedPos >> 8) & 0x1FF) - 64;
+    }
+    
+    public static int unpackZ(int packedPos) {
+        return (packedPos >> 4) & 0xF;
+    }
+    
+    public static BlockPos toBlockPos(int packedPos, int chunkX, int chunkZ) {
+        return new BlockPos(
+            unpackX(packedPos) + (chunkX << 4),
+            unpackY(packedPos),
+            unpackZ(packedPos) + (chunkZ << 4));
     }
     
     public static ChunkRelativePos fromBlockPos(BlockPos pos) {
@@ -27,23 +78,28 @@ public class ChunkRelativePos {
     }
     
     public BlockPos toBlockPos(ChunkPos chunk) {
-        // Convert back to world coordinates using chunk position
-        int x = (packedPos & 0xF) + (chunk.x << 4);
-        int y = ((packedPos >> 8) & 0x1FF) - 64;  // 9 bits for y
-        int z = ((packedPos >> 4) & 0xF) + (chunk.z << 4);
-        return new BlockPos(x, y, z);
+        return toBlockPos(chunk.x, chunk.z);
+    }
+    
+    public BlockPos toBlockPos(int chunkX, int chunkZ) {
+        // Convert back to world coordinates using chunk coordinates
+        return toBlockPos(packedPos, chunkX, chunkZ);
+    }
+    
+    public int getPacked() {
+        return packedPos;
     }
     
     public int getX() {
-        return packedPos & 0xF;
+        return unpackX(packedPos);
     }
     
     public int getY() {
-        return ((packedPos >> 8) & 0x1FF) - 64;
+        return unpackY(packedPos);
     }
     
     public int getZ() {
-        return (packedPos >> 4) & 0xF;
+        return unpackZ(packedPos);
     }
     
     @Override
@@ -0,0 +1,68 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.animal.Animal;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * What one animal species eats, probed once from {@link Animal#isFood} and then
+ * answered with a bit lookup by item registry id.
+ * Profiles are built from default item stacks, so diets that depend on stack
+ * components are not represented.
+ */
+public final class DietProfile {
+    private final BitSet edible;
+    private final Set<CropType> crops;
+    private final boolean eatsHay;
+
+    private DietProfile(BitSet edible, Set<CropType> crops, boolean eatsHay) {
+        this.edible = edible;
+        this.crops = crops;
+        this.eatsHay = eatsHay;
+    }
+
+    /**
+     * Probes an animal against every registered item
+     */
+    static DietProfile probe(Animal animal) {
+        BitSet edible = new BitSet(BuiltInRegistries.ITEM.size());
+        for (Item item : BuiltInRegistries.ITEM) {
+            if (item != Items.AIR && animal.isFood(new ItemStack(item))) {
+                edible.set(BuiltInRegistries.ITEM.getId(item));
+            }
+        }
+        Set<CropType> crops = EnumSet.noneOf(CropType.class);
+        for (CropType cropType : CropType.values()) {
+            if (edible.get(BuiltInRegistries.ITEM.getId(cropType.getCropItem()))) {
+                crops.add(cropType);
+            }
+        }
+        // Hay bales count as wheat
+        return new DietProfile(edible, crops, edible.get(BuiltInRegistries.ITEM.getId(Items.WHEAT)));
+    }
+
+    public boolean isFood(Item item) {
+        return edible.get(BuiltInRegistries.ITEM.getId(item));
+    }
+
+    public boolean isFood(ItemStack stack) {
+        return !stack.isEmpty() && isFood(stack.getItem());
+    }
+
+    public boolean eatsCrop(CropType cropType) {
+        return crops.contains(cropType);
+    }
+
+    public boolean eatsHay() {
+        return eatsHay;
+    }
+
+    BitSet edibleItems() {
+        return edible;
+    }
+}
@@ -0,0 +1,97 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.animal.Animal;
+import net.minecraft.world.item.Item;
+import com.mojang.logging.LogUtils;
+import org.slf4j.Logger;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diet profiles per {@link EntityType}, built the first time an animal of the type is
+ * seen, plus the union of every known diet used to keep non-food items out of the
+ * entity indexes. Profiles are rebuilt when tags or datapacks reload.
+ * Only accessed from the server thread.
+ */
+public class DietProfiles {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private final Map<EntityType<?>, DietProfile> profiles = new Reference2ObjectOpenHashMap<>();
+    private final BitSet anyFood = new BitSet();
+
+    // Set when the union grew, so items already in the world need refiling
+    private boolean foodsChanged;
+
+    /**
+     * Get the profile of an animal's species, probing it on first use
+     */
+    public DietProfile get(Animal animal) {
+        DietProfile profile = profiles.get(animal.getType());
+        if (profile == null) {
+            profile = DietProfile.probe(animal);
+            profiles.put(animal.getType(), profile);
+            addToUnion(profile);
+        }
+        return profile;
+    }
+
+    /**
+     * Returns true if any known species eats the item
+     */
+    public boolean isAnyFood(Item item) {
+        return anyFood.get(BuiltInRegistries.ITEM.getId(item));
+    }
+
+    /**
+     * @return true once after the set of food items grew, clearing the flag
+     */
+    public boolean consumeFoodsChanged() {
+        boolean changed = foodsChanged;
+        foodsChanged = false;
+        return changed;
+    }
+
+    /**
+     * Re-probes every known species, e.g. after item tags changed
+     */
+    public void rebuild(MinecraftServer server) {
+        List<EntityType<?>> types = new ArrayList<>(profiles.keySet());
+        profiles.clear();
+        anyFood.clear();
+        foodsChanged = true;
+        if (server == null) {
+            return;
+        }
+        for (EntityType<?> type : types) {
+            // isFood is an instance method, so probe a throwaway animal
+            Entity entity = type.create(server.overworld());
+            if (entity instanceof Animal animal) {
+                get(animal);
+                entity.discard();
+            }
+        }
+        LOGGER.debug("Rebuilt diet profiles for {} animal types", profiles.size());
+    }
+
+    public void clear() {
+        profiles.clear();
+        anyFood.clear();
+        foodsChanged = false;
+    }
+
+    private void addToUnion(DietProfile profile) {
+        BitSet added = (BitSet) profile.edibleItems().clone();
+        added.andNot(anyFood);
+        if (!added.isEmpty()) {
+            anyFood.or(added);
+            foodsChanged = true;
+        }
+    }
+}
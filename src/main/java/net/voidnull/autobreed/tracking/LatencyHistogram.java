@@ -0,0 +1,135 @@
+package net.voidnull.autobreed.tracking;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram of durations in nanoseconds.
+ * Each power of two is split into 16 linear buckets, so any recorded value is known to within
+ * about 6%, and values up to about an hour fit in a few hundred buckets.
+ * Writers are striped by thread id over a few independent arrays, so threads recording at the
+ * same time rarely touch the same counters. All methods are thread-safe.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values at or above 2^MAX_EXPONENT ns (~73 minutes) land in the last bucket
+    private static final int MAX_EXPONENT = 42;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    // Per-stripe slots after the buckets
+    private static final int SUM_SLOT = BUCKETS;
+    private static final int MAX_SLOT = BUCKETS + 1;
+
+    private static final int STRIPES = 4;
+    private static final int STRIPE_MASK = STRIPES - 1;
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+    LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+    }
+
+    void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().threadId() & STRIPE_MASK];
+        stripe.getAndIncrement(bucketOf(value));
+        stripe.getAndAdd(SUM_SLOT, value);
+        long max;
+        while (value > (max = stripe.get(MAX_SLOT)) && !stripe.compareAndSet(MAX_SLOT, max, value)) {
+            // Lost a race with another writer on this stripe, try again
+        }
+    }
+
+    /**
+     * Merges the stripes into a snapshot and starts over from zero.
+     * Samples recorded while this runs land in either this snapshot or the next one.
+     */
+    Snapshot snapshotAndReset() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                if (stripe.get(i) != 0) {
+                    long n = stripe.getAndSet(i, 0);
+                    counts[i] += n;
+                    count += n;
+                }
+            }
+            sum += stripe.getAndSet(SUM_SLOT, 0);
+            max = Math.max(max, stripe.getAndSet(MAX_SLOT, 0));
+        }
+        return new Snapshot(counts, count, sum, max);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Middle of the range of values that share a bucket
+     */
+    static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lower = (long) ((bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) - 1) / 2;
+    }
+
+    /**
+     * Counts of one histogram at a point in time, in nanoseconds
+     */
+    record Snapshot(long[] counts, long count, long sum, long max) {
+        static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0, 0, 0);
+
+        /**
+         * @param quantile between 0 and 1, e.g. 0.99 for the 99th percentile
+         * @return the smallest recorded value at or above the given share of samples, to bucket precision
+         */
+        long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(valueOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Combines two snapshots, e.g. to cover a longer window
+         */
+        Snapshot plus(Snapshot other) {
+            if (other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                return other;
+            }
+            long[] merged = counts.clone();
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, count + other.count, sum + other.sum, Math.max(max, other.max));
+        }
+    }
+}
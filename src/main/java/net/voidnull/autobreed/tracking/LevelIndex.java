@@ -0,0 +1,50 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+/**
+ * The tracked-block index of a single dimension.
+ * Chunks are keyed by {@link ChunkPos#toLong()} so lookups never box a ChunkPos.
+ * Only accessed from the server thread.
+ */
+class LevelIndex {
+    final ResourceKey<Level> dimension;
+
+    // Map of packed chunk positions to their tracked blocks; chunks with none are absent
+    final Long2ObjectOpenHashMap<ChunkBlockIndex> chunks = new Long2ObjectOpenHashMap<>();
+
+    // Keep track of which chunks we've scanned
+    final LongOpenHashSet scannedChunks = new LongOpenHashSet();
+
+    // Chunks whose index changed since its snapshot was last attached to the chunk
+    final LongOpenHashSet unsavedChunks = new LongOpenHashSet();
+
+    // The live async scan per chunk, if any
+    final Long2ObjectOpenHashMap<AsyncChunkScanner.ScanJob> pendingScans = new Long2ObjectOpenHashMap<>();
+
+    // Positions (BlockPos#asLong) changed this tick, in first-change order; applied at tick end
+    final LongLinkedOpenHashSet pendingChanges = new LongLinkedOpenHashSet();
+
+    // Indexes of chunks that unloaded recently, reinstated if they reload unchanged
+    final RecentChunkCache recentChunks = new RecentChunkCache();
+
+    // Nearest-block candidates shared by searches within the current tick
+    final QueryMemo queryMemo = new QueryMemo();
+
+    LevelIndex(ResourceKey<Level> dimension) {
+        this.dimension = dimension;
+    }
+
+    ChunkBlockIndex getChunk(int chunkX, int chunkZ) {
+        return chunks.get(ChunkPos.asLong(chunkX, chunkZ));
+    }
+
+    boolean isEmpty() {
+        return chunks.isEmpty() && scannedChunks.isEmpty() && pendingScans.isEmpty() && recentChunks.size() == 0;
+    }
+}
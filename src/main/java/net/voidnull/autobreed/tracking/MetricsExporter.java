@@ -0,0 +1,149 @@
+package net.voidnull.autobreed.tracking;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.mojang.logging.LogUtils;
+import net.minecraft.server.MinecraftServer;
+import net.voidnull.autobreed.AutoBreedConfig;
+import org.slf4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends the tracking timings to a file in the server directory at a configured interval, so
+ * AutoBreed's cost can be lined up with tick times over long sessions.
+ * Samples are taken on the server thread; formatting and file writes run on a background thread.
+ */
+public class MetricsExporter {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Gson GSON = new Gson();
+    private static final String CSV_HEADER = "time,tick,mspt,operation,count,mean_ms,p50_ms,p99_ms,p999_ms,max_ms";
+
+    public enum Format {
+        CSV("autobreed-metrics.csv"),
+        JSON("autobreed-metrics.jsonl");
+
+        private final String fileName;
+
+        Format(String fileName) {
+            this.fileName = fileName;
+        }
+    }
+
+    /**
+     * Timings of one export interval, with the server's average tick time at its end
+     */
+    private record Sample(Instant time, int tick, double mspt, List<PerformanceMetrics.Summary> timings) {}
+
+    private ExecutorService writer;
+    private int slotsSinceExport;
+
+    /**
+     * Called whenever {@link PerformanceMetrics#tick} completes a window slot
+     */
+    public void onSlotCompleted(MinecraftServer server) {
+        int intervalSeconds = AutoBreedConfig.METRICS_EXPORT_INTERVAL_SECONDS.get();
+        if (intervalSeconds == 0) {
+            // Keep the export totals from piling up while exporting is off
+            PerformanceMetrics.drainExportSummaries();
+            slotsSinceExport = 0;
+            return;
+        }
+        if (++slotsSinceExport * PerformanceMetrics.SLOT_TICKS < intervalSeconds * 20) {
+            return;
+        }
+        slotsSinceExport = 0;
+
+        Sample sample = new Sample(Instant.now(), server.getTickCount(),
+            server.getAverageTickTimeNanos() / 1_000_000.0, PerformanceMetrics.drainExportSummaries());
+        Format format = AutoBreedConfig.METRICS_EXPORT_FORMAT.get();
+        Path file = server.getServerDirectory().resolve(format.fileName);
+        getWriter().execute(() -> write(file, format, sample));
+    }
+
+    /**
+     * Waits briefly for queued writes, then stops the writer thread
+     */
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed out waiting for AutoBreed metrics export to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    private ExecutorService getWriter() {
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "AutoBreed-MetricsExport");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return writer;
+    }
+
+    private static void write(Path file, Format format, Sample sample) {
+        boolean isNew = !Files.exists(file);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (format == Format.CSV) {
+                if (isNew) {
+                    out.write(CSV_HEADER);
+                    out.newLine();
+                }
+                // One row per operation, so each series can be plotted against mspt directly
+                for (PerformanceMetrics.Summary timing : sample.timings()) {
+                    out.write(String.format(Locale.ROOT, "%s,%d,%.3f,%s,%d,%.4f,%.4f,%.4f,%.4f,%.4f",
+                        sample.time(), sample.tick(), sample.mspt(), timing.operation(), timing.count(),
+                        timing.meanMs(), timing.p50Ms(), timing.p99Ms(), timing.p999Ms(), timing.maxMs()));
+                    out.newLine();
+                }
+            } else {
+                out.write(GSON.toJson(toJson(sample)));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write AutoBreed metrics to {}", file, e);
+        }
+    }
+
+    private static JsonObject toJson(Sample sample) {
+        JsonObject timings = new JsonObject();
+        for (PerformanceMetrics.Summary timing : sample.timings()) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("count", timing.count());
+            entry.addProperty("mean_ms", timing.meanMs());
+            entry.addProperty("p50_ms", timing.p50Ms());
+            entry.addProperty("p99_ms", timing.p99Ms());
+            entry.addProperty("p999_ms", timing.p999Ms());
+            entry.addProperty("max_ms", timing.maxMs());
+            timings.add(timing.operation(), entry);
+        }
+        JsonObject json = new JsonObject();
+        json.addProperty("time", sample.time().toString());
+        json.addProperty("tick", sample.tick());
+        json.addProperty("mspt", sample.mspt());
+        json.add("timings", timings);
+        return json;
+    }
+}
@@ -3,42 +3,319 @@ package net.voidnull.autobreed.tracking;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.DoubleSummaryStatistics;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
-public class PerformanceMetrics {
+/**
+ * Timings and cache hit rates of the tracking system.
+ * Callers look a metric up once, usually into a static field, and time an operation with the
+ * token returned by {@link Timer#start}:
+ * <pre>
+ * long started = TIMER.start();
+ * try {
+ *     ...
+ * } finally {
+ *     TIMER.stop(started);
+ * }
+ * </pre>
+ * The start time stays with the caller, so timers nest and can run on several threads at once.
+ * Samples go into fixed-size histograms, so memory does not grow between reports.
+ * Metrics can be switched off, leaving each timer a field read and a branch.
+ * <p>
+ * Recorded samples feed three views: a rolling window of the last minute or so, shown by the
+ * stats command; the totals since the last log report; and the totals since the last export.
+ * Each timer also keeps a running total, which the load tests compare before and after a run.
+ * Everything but recording happens on the server thread.
+ */
+public final class PerformanceMetrics {
     private static final Logger LOGGER = LogUtils.getLogger();
-    private static final Map<String, Long> startTimes = new ConcurrentHashMap<>();
-    private static final Map<String, List<Long>> durations = new ConcurrentHashMap<>();
-    
-    public static void startTimer(String operation) {
-        startTimes.put(operation, System.nanoTime());
+
+    /**
+     * Length of one slot of the rolling window, in ticks
+     */
+    public static final int SLOT_TICKS = 200;
+    private static final int WINDOW_SLOTS = 6;
+
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final Map<String, HitRate> hitRates = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = true;
+
+    // Ticks covered by each finished window slot, and by the slot being filled
+    private static final int[] slotTicks = new int[WINDOW_SLOTS];
+    private static int currentSlot;
+    private static int currentTicks;
+
+    private PerformanceMetrics() {}
+
+    /**
+     * @return the timer for an operation, created on first use
+     */
+    public static Timer timer(String operation) {
+        return timers.computeIfAbsent(operation, Timer::new);
+    }
+
+    /**
+     * @return the hit rate counter for a cache, created on first use
+     */
+    public static HitRate hitRate(String cache) {
+        return hitRates.computeIfAbsent(cache, HitRate::new);
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Timing summary of one operation, in milliseconds
+     */
+    public record Summary(String operation, long count, double meanMs, double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+        private static Summary of(String operation, LatencyHistogram.Snapshot stats) {
+            return new Summary(operation, stats.count(), millis(stats.mean()), millis(stats.percentile(0.5)),
+                millis(stats.percentile(0.99)), millis(stats.percentile(0.999)), millis(stats.max()));
+        }
+
+        public double totalMs() {
+            return meanMs * count;
+        }
+    }
+
+    /**
+     * Lookups and hits of one cache
+     */
+    public record HitSummary(String cache, long hits, long lookups) {
+        public double hitPercent() {
+            return lookups == 0 ? 0 : hits * 100.0 / lookups;
+        }
+    }
+
+    /**
+     * Durations of one operation
+     */
+    public static final class Timer {
+        private final String operation;
+        private final LatencyHistogram live = new LatencyHistogram();
+        // Server thread only
+        private final LatencyHistogram.Snapshot[] window = new LatencyHistogram.Snapshot[WINDOW_SLOTS];
+        private LatencyHistogram.Snapshot current = LatencyHistogram.Snapshot.EMPTY;
+        private LatencyHistogram.Snapshot sinceReport = LatencyHistogram.Snapshot.EMPTY;
+        private LatencyHistogram.Snapshot sinceExport = LatencyHistogram.Snapshot.EMPTY;
+        private long totalNanos;
+
+        private Timer(String operation) {
+            this.operation = operation;
+            Arrays.fill(window, LatencyHistogram.Snapshot.EMPTY);
+        }
+
+        /**
+         * @return a token to hand to {@link #stop}; 0 while metrics are disabled
+         */
+        public long start() {
+            return enabled ? System.nanoTime() : 0;
+        }
+
+        public void stop(long started) {
+            if (started != 0) {
+                live.record(System.nanoTime() - started);
+            }
+        }
+
+        public String operation() {
+            return operation;
+        }
+
+        // Moves samples out of the live histogram into every view
+        private void drain() {
+            LatencyHistogram.Snapshot recorded = live.snapshotAndReset();
+            current = current.plus(recorded);
+            sinceReport = sinceReport.plus(recorded);
+            sinceExport = sinceExport.plus(recorded);
+            totalNanos += recorded.sum();
+        }
+
+        private void roll(int slot) {
+            drain();
+            window[slot] = current;
+            current = LatencyHistogram.Snapshot.EMPTY;
+        }
+
+        private LatencyHistogram.Snapshot windowStats() {
+            drain();
+            LatencyHistogram.Snapshot total = current;
+            for (LatencyHistogram.Snapshot slot : window) {
+                total = total.plus(slot);
+            }
+            return total;
+        }
     }
-    
-    public static void stopTimer(String operation) {
-        Long start = startTimes.remove(operation);
-        if (start != null) {
-            long duration = System.nanoTime() - start;
-            durations.computeIfAbsent(operation, k -> new ArrayList<>()).add(duration);
+
+    /**
+     * Lookups and hits of one cache
+     */
+    public static final class HitRate {
+        private final String cache;
+        private final LongAdder liveHits = new LongAdder();
+        private final LongAdder liveLookups = new LongAdder();
+        // Server thread only; each view holds {hits, lookups}
+        private final long[][] window = new long[WINDOW_SLOTS][2];
+        private final long[] current = new long[2];
+        private final long[] sinceReport = new long[2];
+
+        private HitRate(String cache) {
+            this.cache = cache;
+        }
+
+        public void record(boolean hit) {
+            if (!enabled) {
+                return;
+            }
+            if (hit) {
+                liveHits.increment();
+            }
+            liveLookups.increment();
+        }
+
+        public String cache() {
+            return cache;
+        }
+
+        private void drain() {
+            long hits = liveHits.sumThenReset();
+            long lookups = liveLookups.sumThenReset();
+            current[0] += hits;
+            current[1] += lookups;
+            sinceReport[0] += hits;
+            sinceReport[1] += lookups;
+        }
+
+        private void roll(int slot) {
+            drain();
+            window[slot][0] = current[0];
+            window[slot][1] = current[1];
+            current[0] = 0;
+            current[1] = 0;
+        }
+
+        private HitSummary windowStats() {
+            drain();
+            long hits = current[0];
+            long lookups = current[1];
+            for (long[] slot : window) {
+                hits += slot[0];
+                lookups += slot[1];
+            }
+            return new HitSummary(cache, hits, lookups);
+        }
+    }
+
+    /**
+     * Advances the rolling window; called once per server tick
+     * @return true if a window slot was completed this tick
+     */
+    public static boolean tick() {
+        if (++currentTicks < SLOT_TICKS) {
+            return false;
+        }
+        currentSlot = (currentSlot + 1) % WINDOW_SLOTS;
+        slotTicks[currentSlot] = currentTicks;
+        currentTicks = 0;
+        timers.values().forEach(timer -> timer.roll(currentSlot));
+        hitRates.values().forEach(rate -> rate.roll(currentSlot));
+        return true;
+    }
+
+    /**
+     * @return how many ticks the rolling window currently covers
+     */
+    public static int windowTicks() {
+        int ticks = currentTicks;
+        for (int slot : slotTicks) {
+            ticks += slot;
         }
+        return ticks;
     }
-    
+
+    /**
+     * @return timings over the rolling window, by operation name
+     */
+    public static List<Summary> windowSummaries() {
+        List<Summary> summaries = new ArrayList<>();
+        new TreeMap<>(timers).forEach((operation, timer) -> summaries.add(Summary.of(operation, timer.windowStats())));
+        return summaries;
+    }
+
+    /**
+     * @return cache hit rates over the rolling window, by cache name
+     */
+    public static List<HitSummary> windowHitRates() {
+        List<HitSummary> summaries = new ArrayList<>();
+        new TreeMap<>(hitRates).forEach((cache, rate) -> summaries.add(rate.windowStats()));
+        return summaries;
+    }
+
+    /**
+     * @return timings since the previous call, by operation name
+     */
+    public static List<Summary> drainExportSummaries() {
+        List<Summary> summaries = new ArrayList<>();
+        new TreeMap<>(timers).forEach((operation, timer) -> {
+            timer.drain();
+            summaries.add(Summary.of(operation, timer.sinceExport));
+            timer.sinceExport = LatencyHistogram.Snapshot.EMPTY;
+        });
+        return summaries;
+    }
+
+    /**
+     * @return time recorded by each operation since metrics were first used, in nanoseconds, by operation name
+     */
+    public static Map<String, Long> totalNanos() {
+        Map<String, Long> totals = new TreeMap<>();
+        timers.forEach((operation, timer) -> {
+            timer.drain();
+            totals.put(operation, timer.totalNanos);
+        });
+        return totals;
+    }
+
     public static void logStats() {
-        durations.forEach((operation, times) -> {
-            DoubleSummaryStatistics stats = times.stream()
-                .mapToDouble(t -> t / 1_000_000.0) // Convert to milliseconds
-                .summaryStatistics();
-            
-            LOGGER.info("{} stats (ms):", operation);
-            LOGGER.info("  Count: {}", stats.getCount());
-            LOGGER.info("  Avg: {}", String.format("%.2f", stats.getAverage()));
-            LOGGER.info("  Min: {}", String.format("%.2f", stats.getMin()));
-            LOGGER.info("  Max: {}", String.format("%.2f", stats.getMax()));
+        // Sorted so reports read the same every time
+        new TreeMap<>(timers).forEach((operation, timer) -> {
+            timer.drain();
+            Summary stats = Summary.of(operation, timer.sinceReport);
+            timer.sinceReport = LatencyHistogram.Snapshot.EMPTY;
+            if (stats.count() > 0) {
+                LOGGER.info("{} stats (ms): count {}, avg {}, p50 {}, p99 {}, p99.9 {}, max {}",
+                    operation, stats.count(), format(stats.meanMs()), format(stats.p50Ms()),
+                    format(stats.p99Ms()), format(stats.p999Ms()), format(stats.maxMs()));
+            }
+        });
+
+        new TreeMap<>(hitRates).forEach((cache, rate) -> {
+            rate.drain();
+            long hits = rate.sinceReport[0];
+            long lookups = rate.sinceReport[1];
+            rate.sinceReport[0] = 0;
+            rate.sinceReport[1] = 0;
+            if (lookups > 0) {
+                LOGGER.info("{} hit rate: {}% ({} of {} lookups)",
+                    cache, String.format("%.1f", hits * 100.0 / lookups), hits, lookups);
+            }
         });
-        
-        // Clear the stats after logging
-        durations.clear();
     }
-} 
\ No newline at end of file
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String format(double ms) {
+        return String.format("%.3f", ms);
+    }
+}
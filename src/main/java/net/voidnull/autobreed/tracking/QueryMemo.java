@@ -0,0 +1,151 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.BlockPos;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Per-tick memo of nearest-block candidates, shared by every search that starts in
+ * the same chunk section with the same type and radii. The first search in a
+ * neighbourhood collects every block any start position in that section could reach;
+ * later searches only pick the nearest from that list.
+ *
+ * <p>Candidates are sorted by distance from the section centre, so a pick can stop as
+ * soon as the triangle inequality rules out the rest. Entries are dropped at tick end
+ * and when a chunk they cover loads or unloads. Block changes need no invalidation:
+ * they are journaled and applied at tick end, and searches already skip journaled
+ * positions. Only accessed from the server thread.
+ */
+final class QueryMemo {
+    // Larger neighbourhoods are searched directly; the ring search already stops early in dense areas
+    static final int MAX_CANDIDATES = 1024;
+
+    record Key(long chunkKey, int sectionY, byte typeId, int radius, int verticalRadius, boolean consumableOnly) {}
+
+    static final class Entry {
+        final int minChunkX;
+        final int maxChunkX;
+        final int minChunkZ;
+        final int maxChunkZ;
+        final int anchorX;
+        final int anchorY;
+        final int anchorZ;
+        // Null when the neighbourhood held too many candidates to be worth memoizing
+        private final long[] positions;
+        private final float[] anchorDist;
+
+        Entry(int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ,
+              int anchorX, int anchorY, int anchorZ, long[] candidates, int count) {
+            this.minChunkX = minChunkX;
+            this.maxChunkX = maxChunkX;
+            this.minChunkZ = minChunkZ;
+            this.maxChunkZ = maxChunkZ;
+            this.anchorX = anchorX;
+            this.anchorY = anchorY;
+            this.anchorZ = anchorZ;
+
+            if (candidates == null) {
+                this.positions = null;
+                this.anchorDist = null;
+                return;
+            }
+
+            // Sort by distance from the anchor through packed (distSq, index) keys
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                long pos = candidates[i];
+                long dx = BlockPos.getX(pos) - anchorX;
+                long dy = BlockPos.getY(pos) - anchorY;
+                long dz = BlockPos.getZ(pos) - anchorZ;
+                order[i] = ((dx * dx + dy * dy + dz * dz) << 32) | i;
+            }
+            Arrays.sort(order);
+            this.positions = new long[count];
+            this.anchorDist = new float[count];
+            for (int i = 0; i < count; i++) {
+                positions[i] = candidates[(int) order[i]];
+                anchorDist[i] = (float) Math.sqrt(order[i] >>> 32);
+            }
+        }
+
+        boolean isOverflow() {
+            return positions == null;
+        }
+
+        int size() {
+            return positions == null ? 0 : positions.length;
+        }
+
+        boolean covers(int chunkX, int chunkZ) {
+            return chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ;
+        }
+
+        /**
+         * Picks the nearest candidate within the given limits of a start position
+         * @return the position as a {@link BlockPos#asLong} value, or {@link ChunkBasedCache#NO_BLOCK}
+         */
+        long pickNearest(int x, int y, int z, long maxRadiusSq, int verticalRadius, LongPredicate skip) {
+            double startDist = Math.sqrt(distSq(x, y, z, anchorX, anchorY, anchorZ));
+            long best = ChunkBasedCache.NO_BLOCK;
+            long bestDistSq = Long.MAX_VALUE;
+            double bestDist = Double.MAX_VALUE;
+            for (int i = 0; i < positions.length; i++) {
+                // No later candidate can be closer than anchorDist - startDist
+                if (anchorDist[i] - startDist > bestDist + 1.0) break;
+                long pos = positions[i];
+                int bx = BlockPos.getX(pos);
+                int by = BlockPos.getY(pos);
+                int bz = BlockPos.getZ(pos);
+                if (Math.abs(by - y) > verticalRadius) continue;
+                long dx = bx - x;
+                long dz = bz - z;
+                if (dx * dx + dz * dz > maxRadiusSq) continue;
+                long distSq = distSq(x, y, z, bx, by, bz);
+                if (distSq < bestDistSq && (skip == null || !skip.test(pos))) {
+                    bestDistSq = distSq;
+                    bestDist = Math.sqrt(distSq);
+                    best = pos;
+                }
+            }
+            return best;
+        }
+
+        private static long distSq(int x1, int y1, int z1, int x2, int y2, int z2) {
+            long dx = x1 - x2;
+            long dy = y1 - y2;
+            long dz = z1 - z2;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    Entry get(Key key) {
+        return entries.isEmpty() ? null : entries.get(key);
+    }
+
+    void put(Key key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    /**
+     * Drops every entry whose candidates may include blocks of the given chunk
+     */
+    void invalidate(int chunkX, int chunkZ) {
+        if (!entries.isEmpty()) {
+            entries.values().removeIf(entry -> entry.covers(chunkX, chunkZ));
+        }
+    }
+
+    void clear() {
+        if (!entries.isEmpty()) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,90 @@
+package net.voidnull.autobreed.tracking;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+
+/**
+ * Indexes of recently unloaded chunks, kept in least-recently-unloaded order so a chunk
+ * that reloads soon after unloading can be reinstated without a scan. Trackers keep their
+ * state for parked blocks; it is only dropped, through the eviction callback, when an
+ * entry leaves the cache without being reinstated.
+ * Only accessed from the server thread.
+ */
+final class RecentChunkCache {
+    // Rough per-entry overhead of the map slot, entry and fingerprint arrays' headers
+    private static final long ENTRY_OVERHEAD_BYTES = 64;
+
+    /**
+     * A parked chunk index; {@code blocks} is null for chunks that held no tracked blocks
+     */
+    record Entry(ChunkBlockIndex blocks, SectionFingerprints sections, long bytes) {}
+
+    @FunctionalInterface
+    interface EvictionListener {
+        void evicted(long chunkKey, Entry entry);
+    }
+
+    private final Long2ObjectLinkedOpenHashMap<Entry> entries = new Long2ObjectLinkedOpenHashMap<>();
+    private long bytes;
+    private long evictions;
+
+    /**
+     * Parks a chunk's index, evicting the oldest entries until the cache fits its limits
+     * @param evicted told about every entry that had to make room
+     */
+    void put(long chunkKey, ChunkBlockIndex blocks, SectionFingerprints sections,
+             int maxEntries, long maxBytes, EvictionListener evicted) {
+        long entryBytes = ENTRY_OVERHEAD_BYTES + sections.estimatedBytes() + (blocks == null ? 0 : blocks.estimatedBytes());
+        Entry previous = entries.putAndMoveToLast(chunkKey, new Entry(blocks, sections, entryBytes));
+        if (previous != null) {
+            bytes -= previous.bytes();
+            evicted.evicted(chunkKey, previous);
+        }
+        bytes += entryBytes;
+
+        while (!entries.isEmpty() && (entries.size() > maxEntries || bytes > maxBytes)) {
+            long oldestKey = entries.firstLongKey();
+            Entry oldest = entries.removeFirst();
+            bytes -= oldest.bytes();
+            evictions++;
+            evicted.evicted(oldestKey, oldest);
+        }
+    }
+
+    /**
+     * Removes and returns a chunk's parked index, or null if it is not cached
+     */
+    Entry take(long chunkKey) {
+        Entry entry = entries.remove(chunkKey);
+        if (entry != null) {
+            bytes -= entry.bytes();
+        }
+        return entry;
+    }
+
+    /**
+     * Drops every entry, telling the callback about each
+     */
+    void clear(EvictionListener evicted) {
+        for (Long2ObjectMap.Entry<Entry> entry : entries.long2ObjectEntrySet()) {
+            evicted.evicted(entry.getLongKey(), entry.getValue());
+        }
+        entries.clear();
+        bytes = 0;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return how many entries were evicted to make room since the cache was created
+     */
+    long evictions() {
+        return evictions;
+    }
+}
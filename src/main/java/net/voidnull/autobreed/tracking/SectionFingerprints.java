@@ -0,0 +1,44 @@
+package net.voidnull.autobreed.tracking;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.world.level.block.state.BlockState;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Fingerprints of the sections of a chunk that hold a tracked block, bottom to top.
+ * A saved or cached chunk index is only reused while the chunk's fingerprints still match
+ * the ones taken alongside it.
+ */
+record SectionFingerprints(int[] sectionYs, long[] fingerprints) {
+    /**
+     * @param sections the sections whose palette may hold a tracked block; those without a tracked
+     *                 cell are left out, as a palette can still list states no cell uses any more
+     */
+    static SectionFingerprints of(List<ChunkBasedCache.SectionSnapshot> sections, Predicate<BlockState> tracked) {
+        IntArrayList sectionYs = new IntArrayList(sections.size());
+        LongArrayList fingerprints = new LongArrayList(sections.size());
+        for (ChunkBasedCache.SectionSnapshot section : sections) {
+            long fingerprint = SectionScanner.fingerprint(section.states(), tracked);
+            if (fingerprint != SectionScanner.NO_TRACKED_CELLS) {
+                sectionYs.add(section.sectionY());
+                fingerprints.add(fingerprint);
+            }
+        }
+        return new SectionFingerprints(sectionYs.toIntArray(), fingerprints.toLongArray());
+    }
+
+    boolean isEmpty() {
+        return sectionYs.length == 0;
+    }
+
+    boolean matches(SectionFingerprints other) {
+        return Arrays.equals(sectionYs, other.sectionYs) && Arrays.equals(fingerprints, other.fingerprints);
+    }
+
+    long estimatedBytes() {
+        return 48L + 4L * sectionYs.length + 8L * fingerprints.length;
+    }
+}
@@ -0,0 +1,206 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.util.BitStorage;
+import net.minecraft.util.SimpleBitStorage;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.GlobalPalette;
+import net.minecraft.world.level.chunk.Palette;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bulk scanner for chunk section block states.
+ * Resolves each palette entry to a tracker once, then sweeps the packed
+ * storage words directly and only decodes cells whose palette index is tracked.
+ * Cell indices follow the vanilla section layout: (y << 8) | (z << 4) | x.
+ */
+final class SectionScanner {
+    static final int SECTION_SIZE = 16 * 16 * 16;
+
+    private SectionScanner() {
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void accept(int index, BlockState state, TrackedBlock tracker);
+    }
+
+    /**
+     * Scans a section's block states and reports every cell holding a tracked state.
+     * @return the number of cells reported
+     */
+    static int scan(PalettedContainer<BlockState> states, Function<BlockState, TrackedBlock> lookup, Visitor visitor) {
+        // Read the volatile data once so palette and storage stay consistent
+        PalettedContainer.Data<BlockState> data = states.data;
+        Palette<BlockState> palette = data.palette();
+        BitStorage storage = data.storage();
+        int bits = storage.getBits();
+
+        // Single-valued section: the whole section is either tracked or not
+        if (bits == 0) {
+            BlockState state = palette.valueFor(0);
+            TrackedBlock tracker = lookup.apply(state);
+            if (tracker == null) {
+                return 0;
+            }
+            for (int index = 0; index < SECTION_SIZE; index++) {
+                visitor.accept(index, state, tracker);
+            }
+            return SECTION_SIZE;
+        }
+
+        // The global palette spans the whole block state registry, so resolve lazily
+        if (palette instanceof GlobalPalette) {
+            return scanGlobal(storage, palette, lookup, visitor);
+        }
+
+        // Build the per-palette mask of tracked indices
+        int paletteSize = palette.getSize();
+        TrackedBlock[] trackers = new TrackedBlock[paletteSize];
+        BlockState[] paletteStates = new BlockState[paletteSize];
+        boolean anyTracked = false;
+        for (int id = 0; id < paletteSize; id++) {
+            BlockState state = palette.valueFor(id);
+            TrackedBlock tracker = lookup.apply(state);
+            if (tracker != null) {
+                trackers[id] = tracker;
+                paletteStates[id] = state;
+                anyTracked = true;
+            }
+        }
+        if (!anyTracked) {
+            return 0;
+        }
+
+        if (!(storage instanceof SimpleBitStorage)) {
+            return scanGeneric(storage, trackers, paletteStates, visitor);
+        }
+
+        // Sweep the packed words; SimpleBitStorage never splits a value across two longs
+        long[] raw = storage.getRaw();
+        int valuesPerLong = 64 / bits;
+        long mask = (1L << bits) - 1L;
+        // An all-zero word holds only palette index 0, so it can be skipped whole if that index is untracked
+        boolean skipZeroWords = trackers[0] == null;
+        int found = 0;
+        int index = 0;
+        for (int w = 0; w < raw.length && index < SECTION_SIZE; w++) {
+            long word = raw[w];
+            if (word == 0L && skipZeroWords) {
+                index += valuesPerLong;
+                continue;
+            }
+            for (int j = 0; j < valuesPerLong && index < SECTION_SIZE; j++, index++) {
+                int id = (int) (word & mask);
+                word >>>= bits;
+                TrackedBlock tracker = trackers[id];
+                if (tracker != null) {
+                    visitor.accept(index, paletteStates[id], tracker);
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returned by {@link #fingerprint} for a section without any tracked cell; never a real fingerprint
+     */
+    static final long NO_TRACKED_CELLS = 0L;
+
+    /**
+     * Hashes the block state of every cell of a section, in cell order.
+     * Only what the section decodes to goes in, not how it is stored: saving a chunk compacts each
+     * palette and may pick another bit width, which must not make an unchanged section look changed.
+     * Any change to the section's blocks changes the result, barring hash collisions.
+     * @param tracked tested once against each distinct state in the section
+     * @return the hash, or {@link #NO_TRACKED_CELLS} if no cell holds a tracked state
+     */
+    static long fingerprint(PalettedContainer<BlockState> states, Predicate<BlockState> tracked) {
+        PalettedContainer.Data<BlockState> data = states.data;
+        Palette<BlockState> palette = data.palette();
+        int[] cells = new int[SECTION_SIZE];
+        data.storage().unpack(cells);
+
+        long hash = 0L;
+        boolean anyTracked = false;
+        if (palette instanceof GlobalPalette) {
+            // Global palette ids are the state ids themselves
+            IntOpenHashSet checked = new IntOpenHashSet();
+            for (int id : cells) {
+                if (!anyTracked && checked.add(id)) {
+                    anyTracked = tracked.test(palette.valueFor(id));
+                }
+                hash = mix(hash, id);
+            }
+        } else {
+            // Resolve each palette entry to its state id once, and only test the entries in use
+            int paletteSize = palette.getSize();
+            int[] stateIds = new int[paletteSize];
+            boolean[] used = new boolean[paletteSize];
+            for (int id = 0; id < paletteSize; id++) {
+                stateIds[id] = Block.getId(palette.valueFor(id));
+            }
+            for (int id : cells) {
+                used[id] = true;
+                hash = mix(hash, stateIds[id]);
+            }
+            for (int id = 0; id < paletteSize && !anyTracked; id++) {
+                anyTracked = used[id] && tracked.test(palette.valueFor(id));
+            }
+        }
+
+        if (!anyTracked) {
+            return NO_TRACKED_CELLS;
+        }
+        return hash == NO_TRACKED_CELLS ? 1L : hash;
+    }
+
+    private static long mix(long hash, long value) {
+        // Multiply-xorshift step, as in the murmur3 finalizer
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static int scanGeneric(BitStorage storage, TrackedBlock[] trackers, BlockState[] paletteStates, Visitor visitor) {
+        int[] cursor = new int[2];  // [0] = cell index, [1] = found count
+        storage.getAll(id -> {
+            TrackedBlock tracker = id < trackers.length ? trackers[id] : null;
+            if (tracker != null) {
+                visitor.accept(cursor[0], paletteStates[id], tracker);
+                cursor[1]++;
+            }
+            cursor[0]++;
+        });
+        return cursor[1];
+    }
+
+    private static int scanGlobal(
+            BitStorage storage,
+            Palette<BlockState> palette,
+            Function<BlockState, TrackedBlock> lookup,
+            Visitor visitor) {
+        // Memoize per distinct id; a null value marks an untracked id
+        Int2ObjectOpenHashMap<TrackedBlock> resolved = new Int2ObjectOpenHashMap<>();
+        int[] cursor = new int[2];
+        storage.getAll(id -> {
+            TrackedBlock tracker;
+            if (resolved.containsKey(id)) {
+                tracker = resolved.get(id);
+            } else {
+                tracker = lookup.apply(palette.valueFor(id));
+                resolved.put(id, tracker);
+            }
+            if (tracker != null) {
+                visitor.accept(cursor[0], palette.valueFor(id), tracker);
+                cursor[1]++;
+            }
+            cursor[0]++;
+        });
+        return cursor[1];
+    }
+}
@@ -0,0 +1,208 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Short-lived claims on block targets, so animals in a herd spread across food
+ * instead of all pathing to the same nearest crop or bale.
+ * Claims are keyed by {@link net.minecraft.core.BlockPos#asLong} per dimension and hold the
+ * owner's entity id and an expiry game tick. An expired claim counts as free; expired
+ * entries are swept lazily as new claims arrive.
+ *
+ * <p>Each dimension's table is split into lock stripes by position hash, so claims on
+ * different positions rarely contend and no single lock guards the whole table. A reverse
+ * map from owner to the positions it holds lets an entity's claims be dropped without
+ * walking the table; it is only locked after a stripe, never before.
+ */
+public class TargetReservations {
+    private static final int STRIPES = 16;
+    // Sweep a stripe's expired claims once every this many new claims in it
+    private static final int SWEEP_INTERVAL = 64;
+
+    private final Map<ResourceKey<Level>, ClaimTable> tables = new ConcurrentHashMap<>();
+
+    private static final class Stripe {
+        // Value packs the owner id in the high half and the expiry tick in the low half
+        final Long2LongOpenHashMap claims = new Long2LongOpenHashMap();
+        int claimsSinceSweep;
+    }
+
+    private static final class ClaimTable {
+        final Stripe[] stripes = new Stripe[STRIPES];
+        // Positions claimed per owner, usually one per target goal; guarded by itself
+        final Int2ObjectOpenHashMap<LongArrayList> byOwner = new Int2ObjectOpenHashMap<>();
+
+        ClaimTable() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        Stripe stripeFor(long pos) {
+            return stripes[(int) HashCommon.mix(pos) & (STRIPES - 1)];
+        }
+
+        void addOwned(int owner, long pos) {
+            synchronized (byOwner) {
+                LongArrayList owned = byOwner.computeIfAbsent(owner, k -> new LongArrayList(2));
+                if (!owned.contains(pos)) {
+                    owned.add(pos);
+                }
+            }
+        }
+
+        void removeOwned(int owner, long pos) {
+            synchronized (byOwner) {
+                LongArrayList owned = byOwner.get(owner);
+                if (owned != null && owned.rem(pos) && owned.isEmpty()) {
+                    byOwner.remove(owner);
+                }
+            }
+        }
+    }
+
+    private static long pack(int owner, int expiry) {
+        return ((long) owner << 32) | (expiry & 0xFFFFFFFFL);
+    }
+
+    private static int ownerOf(long claim) {
+        return (int) (claim >>> 32);
+    }
+
+    // Compared as a signed difference so the int tick can wrap safely
+    private static boolean isLive(long claim, int now) {
+        return (int) claim - now > 0;
+    }
+
+    /**
+     * Claims a position for an owner, or refreshes the owner's existing claim.
+     * @return false if another owner holds a live claim on it
+     */
+    public boolean claim(Level level, long pos, int owner, int ttlTicks) {
+        ClaimTable table = tables.computeIfAbsent(level.dimension(), k -> new ClaimTable());
+        int now = (int) level.getGameTime();
+        Stripe stripe = table.stripeFor(pos);
+        synchronized (stripe) {
+            boolean held = stripe.claims.containsKey(pos);
+            long existing = stripe.claims.get(pos);
+            if (held && ownerOf(existing) != owner) {
+                if (isLive(existing, now)) {
+                    return false;
+                }
+                // Taking over an expired claim
+                table.removeOwned(ownerOf(existing), pos);
+            }
+            stripe.claims.put(pos, pack(owner, now + ttlTicks));
+            if (!held || ownerOf(existing) != owner) {
+                table.addOwned(owner, pos);
+            }
+            if (++stripe.claimsSinceSweep >= SWEEP_INTERVAL) {
+                stripe.claimsSinceSweep = 0;
+                sweep(table, stripe, now);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Releases a position if the owner still holds it
+     */
+    public void release(Level level, long pos, int owner) {
+        ClaimTable table = tables.get(level.dimension());
+        if (table == null) {
+            return;
+        }
+        Stripe stripe = table.stripeFor(pos);
+        synchronized (stripe) {
+            if (stripe.claims.containsKey(pos) && ownerOf(stripe.claims.get(pos)) == owner) {
+                stripe.claims.remove(pos);
+                table.removeOwned(owner, pos);
+            }
+        }
+    }
+
+    /**
+     * Releases every claim held by an owner, e.g. when the entity leaves the level
+     */
+    public void releaseAll(Level level, int owner) {
+        ClaimTable table = tables.get(level.dimension());
+        if (table == null) {
+            return;
+        }
+        LongArrayList owned;
+        synchronized (table.byOwner) {
+            owned = table.byOwner.remove(owner);
+        }
+        if (owned == null) {
+            return;
+        }
+        for (int i = 0; i < owned.size(); i++) {
+            long pos = owned.getLong(i);
+            Stripe stripe = table.stripeFor(pos);
+            synchronized (stripe) {
+                if (stripe.claims.containsKey(pos) && ownerOf(stripe.claims.get(pos)) == owner) {
+                    stripe.claims.remove(pos);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if someone other than the owner holds a live claim on the position
+     */
+    public boolean isClaimedByOther(Level level, long pos, int owner) {
+        ClaimTable table = tables.get(level.dimension());
+        if (table == null) {
+            return false;
+        }
+        int now = (int) level.getGameTime();
+        Stripe stripe = table.stripeFor(pos);
+        synchronized (stripe) {
+            if (!stripe.claims.containsKey(pos)) {
+                return false;
+            }
+            long claim = stripe.claims.get(pos);
+            return ownerOf(claim) != owner && isLive(claim, now);
+        }
+    }
+
+    /**
+     * A filter for nearest-target queries that skips positions claimed by anyone but the owner.
+     * It reads the claims as they are when tested, so a goal can create it once and keep it.
+     */
+    public LongPredicate claimedByOthers(Level level, int owner) {
+        return pos -> isClaimedByOther(level, pos, owner);
+    }
+
+    /**
+     * Drops all claims in a level
+     */
+    public void clearLevel(Level level) {
+        tables.remove(level.dimension());
+    }
+
+    public void clear() {
+        tables.clear();
+    }
+
+    private static void sweep(ClaimTable table, Stripe stripe, int now) {
+        ObjectIterator<Long2LongMap.Entry> it = stripe.claims.long2LongEntrySet().fastIterator();
+        while (it.hasNext()) {
+            Long2LongMap.Entry entry = it.next();
+            if (!isLive(entry.getLongValue(), now)) {
+                table.removeOwned(ownerOf(entry.getLongValue()), entry.getLongKey());
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.ServerLevelAccessor;
+import net.minecraft.world.level.block.state.BlockState;
+import net.voidnull.autobreed.AutoBreedConfig;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import java.util.Map;
+
+/**
+ * Wakes idle target goals when a new consumable target appears near them, so they can
+ * sleep instead of polling. Sleepers are bucketed by the chunk they subscribed from; a
+ * notification visits only the buckets within search range of its chunk. Wake-ups are
+ * one-shot: a woken sleeper is unsubscribed and subscribes again if its search comes up empty.
+ * Only accessed from the server thread.
+ */
+public class TargetWakeups {
+    public enum Kind {
+        CROP,
+        HAY_BALE,
+        FOOD_ITEM
+    }
+
+    /**
+     * Something waiting for a target to appear
+     */
+    public interface Sleeper {
+        /**
+         * Offered each notification near the sleeper
+         * @param state the block that appeared for {@link Kind#CROP} and {@link Kind#HAY_BALE}, otherwise null
+         * @param stack the item that appeared for {@link Kind#FOOD_ITEM}, otherwise empty
+         * @return true if the sleeper woke up and should be unsubscribed
+         */
+        boolean tryWake(Kind kind, BlockState state, ItemStack stack);
+    }
+
+    private static final class LevelSleepers {
+        final Long2ObjectOpenHashMap<ReferenceArrayList<Sleeper>> byChunk = new Long2ObjectOpenHashMap<>();
+        final Reference2LongOpenHashMap<Sleeper> chunkOf = new Reference2LongOpenHashMap<>();
+    }
+
+    private final Map<ResourceKey<Level>, LevelSleepers> levels = new Reference2ObjectOpenHashMap<>();
+
+    private static ResourceKey<Level> dimensionOf(LevelAccessor level) {
+        if (level instanceof Level realLevel) {
+            return realLevel.dimension();
+        }
+        if (level instanceof ServerLevelAccessor serverLevel) {
+            return serverLevel.getLevel().dimension();
+        }
+        return null;
+    }
+
+    /**
+     * Subscribes a sleeper at a position, moving any earlier subscription it had in the level
+     */
+    public void subscribe(Level level, BlockPos pos, Sleeper sleeper) {
+        LevelSleepers sleepers = levels.computeIfAbsent(level.dimension(), k -> new LevelSleepers());
+        long chunkKey = ChunkPos.asLong(pos);
+        if (sleepers.chunkOf.containsKey(sleeper)) {
+            long previous = sleepers.chunkOf.getLong(sleeper);
+            if (previous == chunkKey) {
+                return;
+            }
+            removeFromBucket(sleepers, previous, sleeper);
+        }
+        sleepers.chunkOf.put(sleeper, chunkKey);
+        sleepers.byChunk.computeIfAbsent(chunkKey, k -> new ReferenceArrayList<>()).add(sleeper);
+    }
+
+    public void unsubscribe(Level level, Sleeper sleeper) {
+        LevelSleepers sleepers = levels.get(level.dimension());
+        if (sleepers == null || !sleepers.chunkOf.containsKey(sleeper)) {
+            return;
+        }
+        removeFromBucket(sleepers, sleepers.chunkOf.removeLong(sleeper), sleeper);
+    }
+
+    /**
+     * Offers a new target to every sleeper whose search range may reach it
+     */
+    public void notify(LevelAccessor level, BlockPos pos, Kind kind, BlockState state, ItemStack stack) {
+        ResourceKey<Level> dimension = dimensionOf(level);
+        LevelSleepers sleepers = dimension == null ? null : levels.get(dimension);
+        if (sleepers == null || sleepers.chunkOf.isEmpty()) {
+            return;
+        }
+
+        // A sleeper anywhere in its chunk searches this far, so only these chunks can see the target
+        int range = (AutoBreedConfig.SEARCH_RADIUS.get() + 15) >> 4;
+        int centerX = pos.getX() >> 4;
+        int centerZ = pos.getZ() >> 4;
+        for (int chunkX = centerX - range; chunkX <= centerX + range; chunkX++) {
+            for (int chunkZ = centerZ - range; chunkZ <= centerZ + range; chunkZ++) {
+                long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+                ReferenceArrayList<Sleeper> bucket = sleepers.byChunk.get(chunkKey);
+                if (bucket == null) continue;
+                for (int i = bucket.size() - 1; i >= 0; i--) {
+                    Sleeper sleeper = bucket.get(i);
+                    if (sleeper.tryWake(kind, state, stack)) {
+                        bucket.remove(i);
+                        sleepers.chunkOf.removeLong(sleeper);
+                    }
+                }
+                if (bucket.isEmpty()) {
+                    sleepers.byChunk.remove(chunkKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Offers a block that became a target, e.g. a crop that just ripened
+     */
+    public void notify(LevelAccessor level, BlockPos pos, Kind kind, BlockState state) {
+        notify(level, pos, kind, state, ItemStack.EMPTY);
+    }
+
+    /**
+     * Offers an item that appeared on the ground
+     */
+    public void notify(LevelAccessor level, BlockPos pos, Kind kind, ItemStack stack) {
+        notify(level, pos, kind, null, stack);
+    }
+
+    public void clearLevel(Level level) {
+        levels.remove(level.dimension());
+    }
+
+    public void clear() {
+        levels.clear();
+    }
+
+    private static void removeFromBucket(LevelSleepers sleepers, long chunkKey, Sleeper sleeper) {
+        ReferenceArrayList<Sleeper> bucket = sleepers.byChunk.get(chunkKey);
+        if (bucket != null) {
+            bucket.remove(sleeper);
+            if (bucket.isEmpty()) {
+                sleepers.byChunk.remove(chunkKey);
+            }
+        }
+    }
+}
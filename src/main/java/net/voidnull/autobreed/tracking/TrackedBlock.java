@@ -3,12 +3,15 @@ package net.voidnull.autobreed.tracking;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
 
 /**
  * Represents a block type that can be tracked by the caching system.
  * This interface defines the contract for blocks that want to participate
  * in the chunk-based caching system.
+ * One tracker serves every dimension, so any state it keeps per block is keyed by dimension
+ * as well as position.
  */
 public interface TrackedBlock {
     /**
@@ -25,15 +28,43 @@ public interface TrackedBlock {
      * Called when this block is discovered in the world
      * @return true if the block should be tracked
      */
-    boolean onDiscovered(BlockPos pos, LevelAccessor level, BlockState state);
+    boolean onDiscovered(ResourceKey<Level> dimension, BlockPos pos, BlockState state);
+
+    /**
+     * Called instead of {@link #onDiscovered} when a block is restored from a chunk's saved index
+     * @param savedState the value {@link #getSavedState} returned when the chunk was saved
+     * @return true if the block should be tracked
+     */
+    boolean onRestored(ResourceKey<Level> dimension, BlockPos pos, int savedState);
+
+    /**
+     * Tracker state for a block that is saved with its chunk, so it survives restarts
+     */
+    default int getSavedState(ResourceKey<Level> dimension, BlockPos pos) {
+        return 0;
+    }
 
     /**
      * Called when a tracked block is removed from the world
      */
-    void onRemoved(BlockPos pos, LevelAccessor level);
+    void onRemoved(ResourceKey<Level> dimension, BlockPos pos);
 
     /**
      * Called when a tracked block's state changes
      */
-    void onStateChanged(BlockPos pos, LevelAccessor level, BlockState newState);
+    void onStateChanged(ResourceKey<Level> dimension, BlockPos pos, BlockState newState);
+
+    /**
+     * Check if a tracked block can currently be consumed by an animal.
+     * The cache keeps a separate index of consumable blocks, re-evaluated after
+     * discovery and state changes, so goals can search for usable targets directly.
+     */
+    default boolean isConsumable(ResourceKey<Level> dimension, BlockPos pos) {
+        return true;
+    }
+
+    /**
+     * The kind of wake-up sent to idle animals when one of these blocks becomes consumable
+     */
+    TargetWakeups.Kind getWakeKind();
 } 
\ No newline at end of file
@@ -4,7 +4,8 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.CropBlock;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
 import net.voidnull.autobreed.AutoBreed;
 
 import java.util.Map;
@@ -12,12 +13,17 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class TrackedCrop implements TrackedBlock {
     private final CropType cropType;
-    private final Map<BlockPos, Boolean> growthStates = new ConcurrentHashMap<>();
+    // Per dimension, so clearing one dimension never touches crops at the same coordinates in another
+    private final Map<ResourceKey<Level>, Map<BlockPos, Boolean>> growthStates = new ConcurrentHashMap<>();
     
     public TrackedCrop(CropType cropType) {
         this.cropType = cropType;
     }
     
+    private Map<BlockPos, Boolean> growthStates(ResourceKey<Level> dimension) {
+        return growthStates.computeIfAbsent(dimension, key -> new ConcurrentHashMap<>());
+    }
+    
     @Override
     public Block getBlock() {
         return cropType.getCropBlock();
@@ -29,48 +35,67 @@ public class TrackedCrop implements TrackedBlock {
     }
     
     @Override
-    public boolean onDiscovered(BlockPos pos, LevelAccessor level, BlockState state) {
+    public boolean onDiscovered(ResourceKey<Level> dimension, BlockPos pos, BlockState state) {
         boolean isGrown = cropType.isFullyGrown(state);
-        growthStates.put(pos, isGrown);
+        growthStates(dimension).put(pos, isGrown);
+        return true;
+    }
+    
+    @Override
+    public boolean onRestored(ResourceKey<Level> dimension, BlockPos pos, int savedState) {
+        growthStates(dimension).put(pos, savedState != 0);
         return true;
     }
     
     @Override
-    public void onRemoved(BlockPos pos, LevelAccessor level) {
-        growthStates.remove(pos);
+    public int getSavedState(ResourceKey<Level> dimension, BlockPos pos) {
+        return isFullyGrown(dimension, pos) ? 1 : 0;
+    }
+    
+    @Override
+    public void onRemoved(ResourceKey<Level> dimension, BlockPos pos) {
+        Map<BlockPos, Boolean> states = growthStates.get(dimension);
+        if (states != null) {
+            states.remove(pos);
+        }
     }
     
     @Override
-    public void onStateChanged(BlockPos pos, LevelAccessor level, BlockState newState) {
+    public void onStateChanged(ResourceKey<Level> dimension, BlockPos pos, BlockState newState) {
         if (matches(newState)) {
-            growthStates.put(pos, cropType.isFullyGrown(newState));
+            growthStates(dimension).put(pos, cropType.isFullyGrown(newState));
         } else {
-            growthStates.remove(pos);
+            onRemoved(dimension, pos);
         }
     }
     
-    public boolean isFullyGrown(BlockPos pos) {
-        return growthStates.getOrDefault(pos, false);
+    @Override
+    public TargetWakeups.Kind getWakeKind() {
+        return TargetWakeups.Kind.CROP;
+    }
+    
+    @Override
+    public boolean isConsumable(ResourceKey<Level> dimension, BlockPos pos) {
+        return isFullyGrown(dimension, pos);
+    }
+    
+    public boolean isFullyGrown(ResourceKey<Level> dimension, BlockPos pos) {
+        Map<BlockPos, Boolean> states = growthStates.get(dimension);
+        return states != null && states.getOrDefault(pos, false);
     }
     
-    public void consumeCrop(BlockPos pos, LevelAccessor level) {
+    public void consumeCrop(BlockPos pos, Level level) {
         if (level.getBlockState(pos).getBlock() instanceof CropBlock cropBlock) {
-            // First remove the old state from tracking
-            onRemoved(pos, level);
-            
             // Reset the crop to age 0 (just planted)
-            BlockState newState = cropBlock.getStateForAge(0);
-            level.setBlock(pos, newState, 3);
-            
-            // Add the new state to tracking
-            onDiscovered(pos, level, newState);
-            
-            // Notify the cache about the state change
-            AutoBreed.getBlockTracker().getBlockCache().onBlockChanged(pos, level, newState);
+            level.setBlock(pos, cropBlock.getStateForAge(0), 3);
+            // Other animals must not eat it again this tick, before the index catches up
+            growthStates(level.dimension()).put(pos, false);
+            // Journaled once, together with the neighbour notification the reset fires
+            AutoBreed.getBlockTracker().getBlockCache().onBlockChanged(pos, level);
         }
     }
     
     public CropType getCropType() {
         return cropType;
     }
-} 
\ No newline at end of file
+}
@@ -4,13 +4,20 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.core.BlockPos;
-import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.voidnull.autobreed.AutoBreed;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class TrackedHayBale implements TrackedBlock {
     private static final int MAX_EATEN_COUNT = 10;
-    private final Map<BlockPos, Integer> eatenCounts = new ConcurrentHashMap<>();
+    // Per dimension, so clearing one dimension never touches bales at the same coordinates in another
+    private final Map<ResourceKey<Level>, Map<BlockPos, Integer>> eatenCounts = new ConcurrentHashMap<>();
+    
+    private Map<BlockPos, Integer> eatenCounts(ResourceKey<Level> dimension) {
+        return eatenCounts.computeIfAbsent(dimension, key -> new ConcurrentHashMap<>());
+    }
     
     @Override
     public Block getBlock() {
@@ -23,32 +30,59 @@ public class TrackedHayBale implements TrackedBlock {
     }
     
     @Override
-    public boolean onDiscovered(BlockPos pos, LevelAccessor level, BlockState state) {
-        eatenCounts.putIfAbsent(pos, 0);
+    public boolean onDiscovered(ResourceKey<Level> dimension, BlockPos pos, BlockState state) {
+        eatenCounts(dimension).putIfAbsent(pos, 0);
+        return true;
+    }
+    
+    @Override
+    public boolean onRestored(ResourceKey<Level> dimension, BlockPos pos, int savedState) {
+        eatenCounts(dimension).put(pos, savedState);
         return true;
     }
     
     @Override
-    public void onRemoved(BlockPos pos, LevelAccessor level) {
-        eatenCounts.remove(pos);
+    public int getSavedState(ResourceKey<Level> dimension, BlockPos pos) {
+        return getEatenCount(dimension, pos);
+    }
+    
+    @Override
+    public void onRemoved(ResourceKey<Level> dimension, BlockPos pos) {
+        Map<BlockPos, Integer> counts = eatenCounts.get(dimension);
+        if (counts != null) {
+            counts.remove(pos);
+        }
     }
     
     @Override
-    public void onStateChanged(BlockPos pos, LevelAccessor level, BlockState newState) {
+    public void onStateChanged(ResourceKey<Level> dimension, BlockPos pos, BlockState newState) {
         if (!matches(newState)) {
-            eatenCounts.remove(pos);
+            onRemoved(dimension, pos);
         }
     }
     
-    public boolean canBeEaten(BlockPos pos) {
-        return eatenCounts.getOrDefault(pos, 0) < MAX_EATEN_COUNT;
+    @Override
+    public TargetWakeups.Kind getWakeKind() {
+        return TargetWakeups.Kind.HAY_BALE;
+    }
+    
+    @Override
+    public boolean isConsumable(ResourceKey<Level> dimension, BlockPos pos) {
+        return canBeEaten(dimension, pos);
+    }
+    
+    public boolean canBeEaten(ResourceKey<Level> dimension, BlockPos pos) {
+        return getEatenCount(dimension, pos) < MAX_EATEN_COUNT;
     }
     
-    public void consumeHayBale(BlockPos pos) {
-        eatenCounts.compute(pos, (k, v) -> v == null ? 1 : v + 1);
+    public void consumeHayBale(BlockPos pos, Level level) {
+        eatenCounts(level.dimension()).compute(pos, (k, v) -> v == null ? 1 : v + 1);
+        // The count is saved with the chunk, and once used up the bale leaves the consumable index
+        AutoBreed.getBlockTracker().getBlockCache().onBlockChanged(pos, level);
     }
     
-    public int getEatenCount(BlockPos pos) {
-        return eatenCounts.getOrDefault(pos, 0);
+    public int getEatenCount(ResourceKey<Level> dimension, BlockPos pos) {
+        Map<BlockPos, Integer> counts = eatenCounts.get(dimension);
+        return counts == null ? 0 : counts.getOrDefault(pos, 0);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package net.voidnull.autobreed.tracking;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives scan jobs by hand, in the order the worker pool and the server thread would
+ */
+class AsyncChunkScannerTest {
+    private static final long CHUNK = ChunkPos.asLong(2, -3);
+
+    private ChunkBasedCache cache;
+    private AsyncChunkScanner scanner;
+    private LevelIndex index;
+    // Chunks the scanner tried to fetch for a rescan; the level has none loaded
+    private LongArrayList fetchedChunks;
+    private LevelAccessor level;
+
+    @BeforeEach
+    void setUp() {
+        cache = TestFixtures.newCache();
+        scanner = new AsyncChunkScanner(cache);
+        index = new LevelIndex(Level.OVERWORLD);
+        fetchedChunks = new LongArrayList();
+        level = (LevelAccessor) Proxy.newProxyInstance(LevelAccessor.class.getClassLoader(), new Class<?>[] { LevelAccessor.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getChunk" -> {
+                    fetchedChunks.add(ChunkPos.asLong((int) args[0], (int) args[1]));
+                    yield null;
+                }
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "TestLevel";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    /**
+     * Four ripe wheat crops on farmland
+     */
+    private static List<ChunkBasedCache.SectionSnapshot> farmSections() {
+        PalettedContainer<BlockState> section = TestFixtures.emptySection();
+        for (int x = 0; x < 4; x++) {
+            section.set(x, 0, 0, Blocks.FARMLAND.defaultBlockState());
+            section.set(x, 1, 0, TestFixtures.wheat(7));
+        }
+        return List.of(new ChunkBasedCache.SectionSnapshot(4, section));
+    }
+
+    /**
+     * Makes a job the live scan of its chunk, as {@link AsyncChunkScanner#submit} does
+     */
+    private AsyncChunkScanner.ScanJob schedule() {
+        AsyncChunkScanner.ScanJob job = new AsyncChunkScanner.ScanJob(index, CHUNK, level, farmSections());
+        index.pendingScans.put(CHUNK, job);
+        return job;
+    }
+
+    @Test
+    void finishedScanIsPublished() {
+        scanner.run(schedule());
+        assertTrue(scanner.hasCompleted());
+        scanner.drain(10);
+
+        assertTrue(index.pendingScans.isEmpty());
+        assertTrue(index.scannedChunks.contains(CHUNK));
+        assertEquals(4, index.chunks.get(CHUNK).size());
+        assertTrue(index.unsavedChunks.contains(CHUNK));
+    }
+
+    @Test
+    void cancelledScanIsDropped() {
+        AsyncChunkScanner.ScanJob queued = schedule();
+        scanner.cancel(index, CHUNK);
+        assertTrue(queued.cancelled);
+        assertTrue(index.pendingScans.isEmpty());
+        // A worker picking up the cancelled job skips the scan entirely
+        scanner.run(queued);
+        assertFalse(scanner.hasCompleted());
+
+        // Cancelled while running: the result arrives but is not published
+        AsyncChunkScanner.ScanJob running = schedule();
+        scanner.run(running);
+        scanner.cancel(index, CHUNK);
+        scanner.drain(10);
+
+        assertFalse(scanner.hasCompleted());
+        assertFalse(index.scannedChunks.contains(CHUNK));
+        assertNull(index.chunks.get(CHUNK));
+    }
+
+    @Test
+    void supersededScanIsDropped() {
+        AsyncChunkScanner.ScanJob stale = schedule();
+        AsyncChunkScanner.ScanJob live = schedule();
+        scanner.run(stale);
+        scanner.drain(10);
+
+        assertFalse(index.scannedChunks.contains(CHUNK));
+        assertSame(live, index.pendingScans.get(CHUNK));
+    }
+
+    @Test
+    void changeDuringScanForcesRescan() {
+        AsyncChunkScanner.ScanJob job = schedule();
+        // Nothing is pending elsewhere, so other chunks are left alone
+        scanner.markDirty(index, ChunkPos.asLong(0, 0));
+        assertFalse(job.dirty);
+
+        // A journaled change to the chunk applied while its scan runs
+        BlockPos changed = new ChunkPos(CHUNK).getBlockAt(5, 65, 0);
+        cache.applyChange(index, changed, level, TestFixtures.wheat(7));
+        assertTrue(job.dirty);
+
+        scanner.run(job);
+        List<AsyncChunkScanner.ScanJob> stale = scanner.drain(10);
+        assertEquals(List.of(job), stale);
+        assertTrue(fetchedChunks.isEmpty());
+        stale.forEach(scanner::rescan);
+
+        // The stale result was thrown away and the chunk fetched again for a fresh scan
+        assertEquals(LongArrayList.of(CHUNK), fetchedChunks);
+        assertTrue(index.pendingScans.isEmpty());
+        assertFalse(index.scannedChunks.contains(CHUNK));
+        assertEquals(1, index.chunks.get(CHUNK).size());
+    }
+}
@@ -0,0 +1,60 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkBasedCacheTest {
+    /**
+     * A section with a ripe crop in the bottom and the top layer
+     */
+    private static ChunkBasedCache.SectionSnapshot wheatSection(int sectionY) {
+        PalettedContainer<BlockState> states = TestFixtures.emptySection();
+        states.set(1, 0, 2, TestFixtures.wheat(7));
+        states.set(3, 15, 4, TestFixtures.wheat(7));
+        return new ChunkBasedCache.SectionSnapshot(sectionY, states);
+    }
+
+    @Test
+    void sectionsBeyondPackableHeightsAreSkipped() {
+        ChunkBasedCache cache = TestFixtures.newCache();
+        LevelIndex index = new LevelIndex(Level.OVERWORLD);
+        ChunkPos chunkPos = new ChunkPos(1, -1);
+        // A datapack dimension reaching from y = -96 to y = 479
+        List<ChunkBasedCache.SectionSnapshot> sections = List.of(
+            wheatSection(-6), wheatSection(-4), wheatSection(27), wheatSection(29));
+
+        List<ChunkBasedCache.FoundBlock> found = cache.scanSections(index.dimension, chunkPos, sections);
+        assertEquals(4, found.size());
+        cache.publishScan(index, chunkPos.toLong(), null, found);
+
+        ChunkBlockIndex blocks = index.chunks.get(chunkPos.toLong());
+        assertEquals(4, blocks.size());
+        assertTrue(blocks.isTracked(ChunkRelativePos.pack(1, -64, 2)));
+        assertTrue(blocks.isTracked(ChunkRelativePos.pack(3, 447, 4)));
+    }
+
+    @Test
+    void blocksBeyondPackableHeightsAreNotIndexed() {
+        ChunkBasedCache cache = TestFixtures.newCache();
+        LevelIndex index = new LevelIndex(Level.OVERWORLD);
+        ChunkPos chunkPos = new ChunkPos(0, 0);
+        TrackedBlock wheat = cache.getTracker(Blocks.WHEAT.defaultBlockState());
+        BlockState ripe = TestFixtures.wheat(7);
+        List<ChunkBasedCache.FoundBlock> found = List.of(
+            new ChunkBasedCache.FoundBlock(chunkPos.getBlockAt(0, -65, 0), ripe, wheat),
+            new ChunkBasedCache.FoundBlock(chunkPos.getBlockAt(0, 448, 0), ripe, wheat),
+            new ChunkBasedCache.FoundBlock(chunkPos.getBlockAt(0, 64, 0), ripe, wheat));
+
+        cache.publishScan(index, chunkPos.toLong(), null, found);
+        assertEquals(1, index.chunks.get(chunkPos.toLong()).size());
+        assertTrue(index.scannedChunks.contains(chunkPos.toLong()));
+    }
+}
@@ -0,0 +1,91 @@
+package net.voidnull.autobreed.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkBlockIndexTest {
+    private static final byte CROP = 0;
+    private static final byte HAY = 1;
+
+    @Test
+    void putStoresTypeAndConsumableSet() {
+        ChunkBlockIndex index = new ChunkBlockIndex(2);
+        int low = ChunkRelativePos.pack(3, -64, 5);
+        int high = ChunkRelativePos.pack(3, 447, 5);
+        index.put(high, CROP, false);
+        index.put(low, CROP, true);
+
+        assertEquals(2, index.size());
+        assertEquals(CROP, index.get(low));
+        assertEquals(CROP, index.get(high));
+        assertEquals(-1, index.get(ChunkRelativePos.pack(4, -64, 5)));
+        assertTrue(index.isConsumable(low, CROP));
+        assertFalse(index.isConsumable(high, CROP));
+        assertEquals(1, index.consumableCount(CROP));
+        assertNull(index.bucket(HAY, false));
+
+        // Inserted out of order, kept sorted
+        ChunkBlockIndex.Bucket crops = index.bucket(CROP, false);
+        assertEquals(low, crops.packedAt(0));
+        assertEquals(high, crops.packedAt(1));
+        assertEquals((1 << 0) | (1 << 31), crops.sectionMask());
+    }
+
+    @Test
+    void putReplacesAnotherType() {
+        ChunkBlockIndex index = new ChunkBlockIndex(2);
+        int pos = ChunkRelativePos.pack(0, 64, 0);
+        index.put(pos, CROP, true);
+        index.put(pos, HAY, false);
+
+        assertEquals(1, index.size());
+        assertEquals(HAY, index.get(pos));
+        assertEquals(0, index.count(CROP));
+        assertEquals(0, index.consumableCount(CROP));
+        assertNull(index.bucket(CROP, false));
+        assertNull(index.bucket(CROP, true));
+    }
+
+    @Test
+    void removeClearsSectionOnlyWhenItEmpties() {
+        ChunkBlockIndex index = new ChunkBlockIndex(2);
+        int first = ChunkRelativePos.pack(1, 70, 1);
+        int second = ChunkRelativePos.pack(2, 71, 1);
+        int otherSection = ChunkRelativePos.pack(1, 90, 1);
+        index.put(first, CROP, true);
+        index.put(second, HAY, false);
+        index.put(otherSection, CROP, false);
+
+        assertEquals(CROP, index.remove(first));
+        assertEquals(-1, index.remove(first));
+        assertFalse(index.isTracked(first));
+        assertEquals(2, index.size());
+        assertEquals(0, index.consumableCount(CROP));
+        // The hay bale still occupies the section
+        assertTrue(index.isTracked(second));
+        assertEquals(1 << ChunkBlockIndex.sectionOf(otherSection), index.bucket(CROP, false).sectionMask());
+
+        assertEquals(HAY, index.remove(second));
+        assertEquals(CROP, index.remove(otherSection));
+        assertTrue(index.isEmpty());
+        assertFalse(index.isTracked(otherSection));
+    }
+
+    @Test
+    void setConsumableReportsOnlyNewlyConsumable() {
+        ChunkBlockIndex index = new ChunkBlockIndex(2);
+        int pos = ChunkRelativePos.pack(8, 65, 8);
+        index.put(pos, CROP, false);
+
+        assertTrue(index.setConsumable(pos, CROP, true));
+        assertFalse(index.setConsumable(pos, CROP, true));
+        assertTrue(index.isConsumable(pos, CROP));
+
+        assertFalse(index.setConsumable(pos, CROP, false));
+        assertFalse(index.isConsumable(pos, CROP));
+        assertNull(index.bucket(CROP, true));
+        // Leaving the consumable set keeps the block itself
+        assertEquals(CROP, index.get(pos));
+    }
+}
@@ -0,0 +1,77 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkIndexSnapshotTest {
+    private static final int LAYOUT = 0x1234;
+    private static final SectionFingerprints SECTIONS = new SectionFingerprints(new int[] { -4, 4 }, new long[] { 17L, -3L });
+
+    @BeforeAll
+    static void bootstrap() {
+        TestFixtures.bootstrap();
+    }
+
+    /**
+     * Writes a snapshot to bytes and reads it back, as a chunk save and load does
+     */
+    private static ChunkIndexSnapshot saveAndLoad(ChunkIndexSnapshot snapshot) throws IOException {
+        CompoundTag tag = ChunkIndexSnapshot.SERIALIZER.write(snapshot, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        NbtIo.write(tag, new DataOutputStream(bytes));
+        CompoundTag loaded = NbtIo.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        return ChunkIndexSnapshot.SERIALIZER.read(null, loaded, null);
+    }
+
+    @Test
+    void blocksSurviveWriteAndRead() throws IOException {
+        int[] positions = { ChunkRelativePos.pack(0, -64, 0), ChunkRelativePos.pack(5, 65, 9), ChunkRelativePos.pack(15, 447, 15) };
+        byte[] types = { 0, 3, 1 };
+        int[] states = { 0, 7, 2 };
+        ChunkIndexSnapshot loaded = saveAndLoad(ChunkIndexSnapshot.of(LAYOUT, SECTIONS, positions, types, states));
+
+        assertTrue(loaded.matches(LAYOUT, 4, new SectionFingerprints(new int[] { -4, 4 }, new long[] { 17L, -3L })));
+        assertEquals(positions.length, loaded.size());
+        for (int i = 0; i < positions.length; i++) {
+            assertEquals(positions[i], loaded.packedAt(i));
+            assertEquals(types[i], loaded.typeAt(i));
+            assertEquals(states[i], loaded.stateAt(i));
+        }
+    }
+
+    @Test
+    void loadedSnapshotRejectsChangedChunkOrTrackers() throws IOException {
+        ChunkIndexSnapshot loaded = saveAndLoad(ChunkIndexSnapshot.of(LAYOUT, SECTIONS,
+            new int[] { ChunkRelativePos.pack(1, 70, 1) }, new byte[] { 3 }, new int[] { 0 }));
+
+        assertFalse(loaded.matches(LAYOUT + 1, 4, SECTIONS));
+        // A type id the current tracker set does not have
+        assertFalse(loaded.matches(LAYOUT, 3, SECTIONS));
+        assertFalse(loaded.matches(LAYOUT, 4, new SectionFingerprints(new int[] { -4, 4 }, new long[] { 17L, -2L })));
+        assertFalse(loaded.matches(LAYOUT, 4, new SectionFingerprints(new int[] { 4 }, new long[] { -3L })));
+    }
+
+    @Test
+    void snapshotWithUnpackablePositionIsRejected() {
+        for (int packedPos : new int[] { -1, 1 << 17 }) {
+            ChunkIndexSnapshot snapshot = ChunkIndexSnapshot.of(LAYOUT, SECTIONS, new int[] { packedPos }, new byte[] { 0 }, new int[] { 0 });
+            assertFalse(snapshot.matches(LAYOUT, 4, SECTIONS));
+        }
+    }
+
+    @Test
+    void emptySnapshotIsNotSaved() {
+        assertNull(ChunkIndexSnapshot.SERIALIZER.write(ChunkIndexSnapshot.EMPTY, null));
+        assertFalse(ChunkIndexSnapshot.EMPTY.matches(LAYOUT, 4, new SectionFingerprints(new int[0], new long[0])));
+    }
+}
@@ -0,0 +1,44 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkRelativePosTest {
+    @Test
+    void packRoundTripsEveryCellAtTheYLimits() {
+        int[] ys = { -64, -1, 0, 63, 319, 447 };
+        for (int y : ys) {
+            assertTrue(ChunkRelativePos.isPackable(y));
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int packed = ChunkRelativePos.pack(x, y, z);
+                    assertEquals(x, ChunkRelativePos.unpackX(packed));
+                    assertEquals(y, ChunkRelativePos.unpackY(packed));
+                    assertEquals(z, ChunkRelativePos.unpackZ(packed));
+                }
+            }
+        }
+        assertFalse(ChunkRelativePos.isPackable(-65));
+        assertFalse(ChunkRelativePos.isPackable(448));
+    }
+
+    @Test
+    void blockPosRoundTripsThroughItsChunk() {
+        BlockPos pos = new BlockPos(-17, -64, 40);
+        int packed = ChunkRelativePos.pack(pos);
+        assertEquals(pos, ChunkRelativePos.toBlockPos(packed, pos.getX() >> 4, pos.getZ() >> 4));
+        assertEquals(pos, ChunkRelativePos.fromBlockPos(pos).toBlockPos(pos.getX() >> 4, pos.getZ() >> 4));
+    }
+
+    @Test
+    void packedValuesSortByYThenZThenX() {
+        assertTrue(ChunkRelativePos.pack(15, -64, 15) < ChunkRelativePos.pack(0, -63, 0));
+        assertTrue(ChunkRelativePos.pack(15, 10, 3) < ChunkRelativePos.pack(0, 10, 4));
+        assertTrue(ChunkRelativePos.pack(3, 10, 4) < ChunkRelativePos.pack(4, 10, 4));
+        // The top of the range still sorts above everything, so section runs stay contiguous
+        assertTrue(ChunkRelativePos.pack(0, 447, 0) > ChunkRelativePos.pack(15, 446, 15));
+        assertEquals(31, ChunkBlockIndex.sectionOf(ChunkRelativePos.pack(15, 447, 15)));
+    }
+}
@@ -0,0 +1,122 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryMemoTest {
+    private static final int FIELD_CHUNK_RADIUS = 3;
+    private static final int VERTICAL_RADIUS = 4;
+
+    private static ChunkBasedCache cache;
+    private static TrackedBlock wheat;
+    private static LevelIndex index;
+
+    /**
+     * A field of wheat on two floors; about a third of it is ripe
+     */
+    @BeforeAll
+    static void plantField() {
+        cache = TestFixtures.newCache();
+        wheat = TestFixtures.wheatTracker(cache);
+        index = new LevelIndex(Level.OVERWORLD);
+        byte typeId = cache.getTypeId(wheat);
+        Random random = new Random(42);
+        for (int chunkX = -FIELD_CHUNK_RADIUS; chunkX <= FIELD_CHUNK_RADIUS; chunkX++) {
+            for (int chunkZ = -FIELD_CHUNK_RADIUS; chunkZ <= FIELD_CHUNK_RADIUS; chunkZ++) {
+                ChunkBlockIndex blocks = new ChunkBlockIndex(4);
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        if (random.nextInt(10) == 0) {
+                            blocks.put(ChunkRelativePos.pack(x, 65, z), typeId, random.nextInt(3) == 0);
+                        }
+                        if (random.nextInt(40) == 0) {
+                            blocks.put(ChunkRelativePos.pack(x, 70, z), typeId, random.nextInt(3) == 0);
+                        }
+                    }
+                }
+                index.chunks.put(ChunkPos.asLong(chunkX, chunkZ), blocks);
+                index.scannedChunks.add(ChunkPos.asLong(chunkX, chunkZ));
+            }
+        }
+    }
+
+    /**
+     * Squared distance to the nearest matching block, found by visiting every indexed block
+     */
+    private static long bruteForceDistSq(BlockPos start, int radius, boolean consumableOnly, LongPredicate skip) {
+        byte typeId = cache.getTypeId(wheat);
+        long best = Long.MAX_VALUE;
+        for (var chunk : index.chunks.long2ObjectEntrySet()) {
+            ChunkBlockIndex.Bucket bucket = chunk.getValue().bucket(typeId, consumableOnly);
+            for (int i = 0; bucket != null && i < bucket.count(); i++) {
+                BlockPos pos = ChunkRelativePos.toBlockPos(bucket.packedAt(i),
+                    ChunkPos.getX(chunk.getLongKey()), ChunkPos.getZ(chunk.getLongKey()));
+                long dx = pos.getX() - start.getX();
+                long dz = pos.getZ() - start.getZ();
+                if (dx * dx + dz * dz > (long) radius * radius || Math.abs(pos.getY() - start.getY()) > VERTICAL_RADIUS) continue;
+                if (skip != null && skip.test(pos.asLong())) continue;
+                best = Math.min(best, (long) pos.distSqr(start));
+            }
+        }
+        return best;
+    }
+
+    private static void assertSameAsBruteForce(BlockPos start, int radius, boolean consumableOnly, LongPredicate skip) {
+        long found = cache.findNearestPacked(index, start, radius, VERTICAL_RADIUS, wheat, consumableOnly, skip);
+        long expected = bruteForceDistSq(start, radius, consumableOnly, skip);
+        if (expected == Long.MAX_VALUE) {
+            assertEquals(ChunkBasedCache.NO_BLOCK, found, () -> "nothing should be in range of " + start);
+        } else {
+            assertNotEquals(ChunkBasedCache.NO_BLOCK, found, () -> "missed a block near " + start);
+            // Ties may resolve either way, so compare distances
+            assertEquals(expected, (long) BlockPos.of(found).distSqr(start), () -> "wrong distance from " + start);
+        }
+    }
+
+    @Test
+    void memoizedSearchesMatchColdSearches() {
+        Random random = new Random(7);
+        for (int radius : new int[] { 4, 8, 16, 32 }) {
+            for (boolean consumableOnly : new boolean[] { false, true }) {
+                index.queryMemo.clear();
+                for (int i = 0; i < 200; i++) {
+                    // Starts cluster in a few sections, so most searches reuse another's memo
+                    BlockPos start = new BlockPos(random.nextInt(24) - 12, 64 + random.nextInt(8), random.nextInt(24) - 12);
+                    assertSameAsBruteForce(start, radius, consumableOnly, null);
+                }
+                // Two by two chunks, all in one section
+                assertTrue(index.queryMemo.size() <= 4, "starts should share memo entries");
+            }
+        }
+    }
+
+    @Test
+    void memoizedSearchesHonourSkip() {
+        index.queryMemo.clear();
+        BlockPos start = new BlockPos(3, 65, 3);
+        long nearest = cache.findNearestPacked(index, start, 16, VERTICAL_RADIUS, wheat, false, null);
+        assertNotEquals(ChunkBasedCache.NO_BLOCK, nearest);
+
+        // Same memo entry, with the nearest block claimed
+        LongPredicate claimed = pos -> pos == nearest;
+        assertEquals(1, index.queryMemo.size());
+        assertSameAsBruteForce(start, 16, false, claimed);
+        assertNotEquals(nearest, cache.findNearestPacked(index, start, 16, VERTICAL_RADIUS, wheat, false, claimed));
+    }
+
+    @Test
+    void searchesOutsideTheFieldFindNothing() {
+        index.queryMemo.clear();
+        assertSameAsBruteForce(new BlockPos(200, 65, 200), 16, false, null);
+        // Far above both floors
+        assertSameAsBruteForce(new BlockPos(0, 100, 0), 16, false, null);
+    }
+}
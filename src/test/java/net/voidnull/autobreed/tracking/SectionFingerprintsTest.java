@@ -0,0 +1,64 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionFingerprintsTest {
+    @BeforeAll
+    static void bootstrap() {
+        TestFixtures.bootstrap();
+    }
+
+    /**
+     * A section that held a few crops, some of which have since been harvested
+     */
+    private static PalettedContainer<BlockState> harvestedSection(boolean anyLeft) {
+        PalettedContainer<BlockState> section = TestFixtures.emptySection();
+        for (int x = 0; x < 16; x++) {
+            section.set(x, 0, 0, Blocks.FARMLAND.defaultBlockState());
+            section.set(x, 1, 0, TestFixtures.wheat(x % 8));
+        }
+        for (int x = anyLeft ? 8 : 0; x < 16; x++) {
+            section.set(x, 1, 0, Blocks.AIR.defaultBlockState());
+        }
+        return section;
+    }
+
+    private static List<ChunkBasedCache.SectionSnapshot> chunk(PalettedContainer<BlockState> lower, PalettedContainer<BlockState> upper) {
+        return List.of(new ChunkBasedCache.SectionSnapshot(4, lower), new ChunkBasedCache.SectionSnapshot(5, upper));
+    }
+
+    @Test
+    void parkedChunkMatchesAfterReload() {
+        PalettedContainer<BlockState> lower = harvestedSection(true);
+        PalettedContainer<BlockState> upper = harvestedSection(false);
+        SectionFingerprints parked = SectionFingerprints.of(chunk(lower, upper), TestFixtures::isWheat);
+        SectionFingerprints reloaded = SectionFingerprints.of(
+            chunk(TestFixtures.saveAndLoad(lower), TestFixtures.saveAndLoad(upper)), TestFixtures::isWheat);
+
+        assertTrue(parked.matches(reloaded));
+        // The upper section only lists wheat in its palette, so it is left out on both sides
+        assertArrayEquals(new int[] { 4 }, parked.sectionYs());
+    }
+
+    @Test
+    void changedChunkDoesNotMatch() {
+        PalettedContainer<BlockState> lower = harvestedSection(true);
+        SectionFingerprints parked = SectionFingerprints.of(chunk(lower, harvestedSection(false)), TestFixtures::isWheat);
+
+        PalettedContainer<BlockState> replanted = harvestedSection(false);
+        replanted.set(0, 1, 0, TestFixtures.wheat(0));
+        assertFalse(parked.matches(SectionFingerprints.of(chunk(lower, replanted), TestFixtures::isWheat)));
+
+        PalettedContainer<BlockState> grown = TestFixtures.saveAndLoad(lower);
+        grown.set(0, 1, 0, TestFixtures.wheat(7));
+        assertFalse(parked.matches(SectionFingerprints.of(chunk(grown, harvestedSection(false)), TestFixtures::isWheat)));
+    }
+}
@@ -0,0 +1,118 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionScannerTest {
+    @BeforeAll
+    static void bootstrap() {
+        TestFixtures.bootstrap();
+    }
+
+    /**
+     * A field of wheat on farmland whose palette also picked up states no cell uses any more
+     */
+    private static PalettedContainer<BlockState> grownFarm() {
+        PalettedContainer<BlockState> section = TestFixtures.emptySection();
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                section.set(x, 0, z, Blocks.FARMLAND.defaultBlockState());
+                section.set(x, 1, z, TestFixtures.wheat(0));
+            }
+        }
+        // Grow the palette past 16 entries, then clear the cells again
+        BlockState[] wool = {
+            Blocks.WHITE_WOOL.defaultBlockState(), Blocks.ORANGE_WOOL.defaultBlockState(), Blocks.MAGENTA_WOOL.defaultBlockState(),
+            Blocks.LIGHT_BLUE_WOOL.defaultBlockState(), Blocks.YELLOW_WOOL.defaultBlockState(), Blocks.LIME_WOOL.defaultBlockState(),
+            Blocks.PINK_WOOL.defaultBlockState(), Blocks.GRAY_WOOL.defaultBlockState(), Blocks.LIGHT_GRAY_WOOL.defaultBlockState(),
+            Blocks.CYAN_WOOL.defaultBlockState(), Blocks.PURPLE_WOOL.defaultBlockState(), Blocks.BLUE_WOOL.defaultBlockState(),
+            Blocks.BROWN_WOOL.defaultBlockState(), Blocks.GREEN_WOOL.defaultBlockState(), Blocks.RED_WOOL.defaultBlockState(),
+            Blocks.BLACK_WOOL.defaultBlockState()
+        };
+        for (int i = 0; i < wool.length; i++) {
+            section.set(i, 2, 0, wool[i]);
+            section.set(i, 2, 0, Blocks.AIR.defaultBlockState());
+        }
+        // Crops ripen while the chunk is loaded, adding their ages to the palette
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                section.set(x, 1, z, TestFixtures.wheat((x + z) % 8));
+            }
+        }
+        return section;
+    }
+
+    @Test
+    void fingerprintSurvivesSaveAndLoad() {
+        PalettedContainer<BlockState> live = grownFarm();
+        PalettedContainer<BlockState> reloaded = TestFixtures.saveAndLoad(live);
+
+        // Saving compacted the palette, so the storage really is laid out differently
+        assertNotEquals(live.data.storage().getBits(), reloaded.data.storage().getBits());
+        assertEquals(SectionScanner.fingerprint(live, TestFixtures::isWheat),
+            SectionScanner.fingerprint(reloaded, TestFixtures::isWheat));
+    }
+
+    @Test
+    void fingerprintChangesWithAnyCell() {
+        PalettedContainer<BlockState> section = grownFarm();
+        long before = SectionScanner.fingerprint(section, TestFixtures::isWheat);
+        section.set(3, 1, 7, TestFixtures.wheat(7));
+        assertNotEquals(before, SectionScanner.fingerprint(section, TestFixtures::isWheat));
+    }
+
+    @Test
+    void fingerprintIgnoresUnusedTrackedPaletteEntries() {
+        PalettedContainer<BlockState> section = TestFixtures.emptySection();
+        section.set(0, 0, 0, Blocks.FARMLAND.defaultBlockState());
+        section.set(0, 1, 0, TestFixtures.wheat(7));
+        section.set(0, 1, 0, Blocks.AIR.defaultBlockState());
+
+        assertTrue(section.maybeHas(TestFixtures::isWheat));
+        assertEquals(SectionScanner.NO_TRACKED_CELLS, SectionScanner.fingerprint(section, TestFixtures::isWheat));
+    }
+
+    @Test
+    void uniformSectionMatchesSameCellsInLargerPalette() {
+        PalettedContainer<BlockState> uniform = new PalettedContainer<>(
+            Block.BLOCK_STATE_REGISTRY, TestFixtures.wheat(7), PalettedContainer.Strategy.SECTION_STATES);
+        PalettedContainer<BlockState> mixed = TestFixtures.emptySection();
+        mixed.set(0, 0, 0, Blocks.STONE.defaultBlockState());
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    mixed.set(x, y, z, TestFixtures.wheat(7));
+                }
+            }
+        }
+        assertEquals(SectionScanner.fingerprint(uniform, TestFixtures::isWheat),
+            SectionScanner.fingerprint(mixed, TestFixtures::isWheat));
+    }
+
+    @Test
+    void scanReportsEveryTrackedCell() {
+        PalettedContainer<BlockState> section = TestFixtures.saveAndLoad(grownFarm());
+        TrackedCrop wheat = new TrackedCrop(CropType.WHEAT);
+        List<Integer> found = new ArrayList<>();
+        int count = SectionScanner.scan(section, state -> TestFixtures.isWheat(state) ? wheat : null,
+            (index, state, tracker) -> {
+                assertTrue(TestFixtures.isWheat(state));
+                found.add(index);
+            });
+        assertEquals(256, count);
+        assertEquals(256, found.size());
+        // Every wheat cell sits in the y = 1 layer
+        for (int index : found) {
+            assertEquals(1, index >> 8);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.voidnull.autobreed.tracking;
+
+import com.mojang.serialization.Codec;
+import net.minecraft.SharedConstants;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.CropBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.util.Set;
+
+/**
+ * Shared setup for the tracking tests and benchmarks
+ */
+final class TestFixtures {
+    private static boolean bootstrapped;
+
+    private TestFixtures() {}
+
+    /**
+     * Loads the vanilla registries, as the game's own test harness does
+     */
+    static synchronized void bootstrap() {
+        if (!bootstrapped) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            bootstrapped = true;
+        }
+    }
+
+    /**
+     * A cache tracking the same blocks as the mod
+     */
+    static ChunkBasedCache newCache() {
+        bootstrap();
+        Set<TrackedBlock> trackers = Set.of(new TrackedHayBale(), new TrackedCrop(CropType.WHEAT),
+            new TrackedCrop(CropType.CARROTS), new TrackedCrop(CropType.POTATOES));
+        return new ChunkBasedCache(trackers, new TargetWakeups());
+    }
+
+    /**
+     * The tracker a cache made by {@link #newCache} uses for wheat
+     */
+    static TrackedBlock wheatTracker(ChunkBasedCache cache) {
+        return cache.getTracker(Blocks.WHEAT.defaultBlockState());
+    }
+
+    static PalettedContainer<BlockState> emptySection() {
+        return new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES);
+    }
+
+    /**
+     * Writes a section the way a chunk save does and reads it back
+     */
+    static PalettedContainer<BlockState> saveAndLoad(PalettedContainer<BlockState> states) {
+        // Same codec as the chunk serializer's
+        Codec<PalettedContainer<BlockState>> codec = PalettedContainer.codecRW(
+            Block.BLOCK_STATE_REGISTRY, BlockState.CODEC, PalettedContainer.Strategy.SECTION_STATES, Blocks.AIR.defaultBlockState());
+        Tag tag = codec.encodeStart(NbtOps.INSTANCE, states).getOrThrow();
+        return codec.parse(NbtOps.INSTANCE, tag).getOrThrow();
+    }
+
+    static BlockState wheat(int age) {
+        return ((CropBlock) Blocks.WHEAT).getStateForAge(age);
+    }
+
+    static boolean isWheat(BlockState state) {
+        return state.is(Blocks.WHEAT);
+    }
+}
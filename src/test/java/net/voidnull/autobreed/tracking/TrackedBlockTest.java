@@ -0,0 +1,45 @@
+package net.voidnull.autobreed.tracking;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackedBlockTest {
+    private static final BlockPos POS = new BlockPos(10, 64, -3);
+
+    @BeforeAll
+    static void bootstrap() {
+        TestFixtures.bootstrap();
+    }
+
+    @Test
+    void cropStateIsKeptPerDimension() {
+        TrackedCrop wheat = new TrackedCrop(CropType.WHEAT);
+        wheat.onDiscovered(Level.OVERWORLD, POS, TestFixtures.wheat(7));
+        wheat.onDiscovered(Level.NETHER, POS, TestFixtures.wheat(2));
+
+        assertTrue(wheat.isFullyGrown(Level.OVERWORLD, POS));
+        assertFalse(wheat.isFullyGrown(Level.NETHER, POS));
+
+        wheat.onRemoved(Level.NETHER, POS);
+        assertTrue(wheat.isConsumable(Level.OVERWORLD, POS));
+        assertEquals(1, wheat.getSavedState(Level.OVERWORLD, POS));
+    }
+
+    @Test
+    void hayStateIsKeptPerDimension() {
+        TrackedHayBale hay = new TrackedHayBale();
+        hay.onRestored(Level.OVERWORLD, POS, 4);
+        hay.onDiscovered(Level.END, POS, Blocks.HAY_BLOCK.defaultBlockState());
+
+        assertEquals(4, hay.getEatenCount(Level.OVERWORLD, POS));
+        assertEquals(0, hay.getEatenCount(Level.END, POS));
+
+        hay.onStateChanged(Level.END, POS, Blocks.AIR.defaultBlockState());
+        assertEquals(4, hay.getSavedState(Level.OVERWORLD, POS));
+    }
+}